@@ -1,10 +1,10 @@
 package edu.montana.csci.csci468;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.js.JSTranspiler;
-import edu.montana.csci.csci468.parser.CatScriptParser;
 import edu.montana.csci.csci468.parser.ParseError;
-import edu.montana.csci.csci468.parser.ParseErrorException;
+import edu.montana.csci.csci468.parser.ProgramCache;
 import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
 import edu.montana.csci.csci468.tokenizer.TokenList;
@@ -16,6 +16,7 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -23,6 +24,10 @@ import java.util.stream.Collectors;
 import static spark.Spark.*;
 
 class CatScriptServer {
+
+    // the editor sends the whole source on every request, usually unchanged
+    private static final ProgramCache PROGRAMS = new ProgramCache(256, Duration.ofMinutes(10));
+
     public static void main(String[] args) {
         port(6789);
         Spark.staticFiles.location("/public");
@@ -56,52 +61,52 @@ class CatScriptServer {
 
         get("/parse", (req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
+            CatScriptProgram program = PROGRAMS.lookup(source).getProgram();
             return HTMLParseTreeRenderer.render(program);
         });
 
         get("/evaluate", (req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
-            try {
-                program.verify();
-                program.execute();
-                return program.getOutput();
-            } catch (ParseErrorException parseErrorException) {
-                parseErrorException.printStackTrace();
-                return "<pre>" + parseErrorException.getMessage() + "</pre>";
+            ProgramCache.Entry entry = PROGRAMS.lookup(source);
+            if (entry.hasErrors()) {
+                return "<pre>" + entry.getErrors().getMessage() + "</pre>";
+            }
+            if (entry.hasFailed()) {
+                return "<pre>" + entry.getFailure() + "</pre>";
             }
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            entry.getProgram().execute(runtime);
+            return runtime.getOutput();
         });
 
         get("/transpile", (req, resp) -> {
             String source = req.queryParams("src");
-
-            CatScriptProgram program = new CatScriptParser().parse(source);
-            try {
-                program.verify();
-                JSTranspiler jsTranspiler = new JSTranspiler(program);
-                String jsSource = jsTranspiler.getJavascriptSource();
-                String output = jsTranspiler.evaluate();
-                return "<pre>" + "\n\n  Source =================\n\n" + jsSource + "\n\n  Output =================\n\n" + output + "</pre>";
-            } catch (ParseErrorException parseErrorException) {
-                parseErrorException.printStackTrace();
-                return "<pre>" + parseErrorException.getMessage() + "</pre>";
+            ProgramCache.Entry entry = PROGRAMS.lookup(source);
+            if (entry.hasErrors()) {
+                return "<pre>" + entry.getErrors().getMessage() + "</pre>";
+            }
+            if (entry.hasFailed()) {
+                return "<pre>" + entry.getFailure() + "</pre>";
             }
+            JSTranspiler jsTranspiler = new JSTranspiler(entry.getProgram());
+            String jsSource = jsTranspiler.getJavascriptSource();
+            String output = jsTranspiler.evaluate();
+            return "<pre>" + "\n\n  Source =================\n\n" + jsSource + "\n\n  Output =================\n\n" + output + "</pre>";
         });
 
         get("/compile", (req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
-            try {
-                program.verify();
-                ByteCodeGenerator byteCodeGenerator = new ByteCodeGenerator(program);
-                CatScriptProgram compiledProgram = byteCodeGenerator.compileToBytecode();
-                compiledProgram.execute();
-                return compiledProgram.getOutput();
-            } catch (ParseErrorException parseErrorException) {
-                parseErrorException.printStackTrace();
-                return "<pre>" + parseErrorException.getMessage() + "</pre>";
+            ProgramCache.Entry entry = PROGRAMS.lookup(source);
+            if (entry.hasErrors()) {
+                return "<pre>" + entry.getErrors().getMessage() + "</pre>";
+            }
+            if (entry.hasFailed()) {
+                return "<pre>" + entry.getFailure() + "</pre>";
             }
+            ByteCodeGenerator byteCodeGenerator = new ByteCodeGenerator(entry.getProgram());
+            CatScriptProgram compiledProgram = byteCodeGenerator.compileToBytecode();
+            compiledProgram.execute();
+            return compiledProgram.getOutput();
         });
 
     }
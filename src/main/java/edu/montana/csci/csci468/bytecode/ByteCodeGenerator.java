@@ -164,6 +164,10 @@ public class ByteCodeGenerator {
         currentMethod.pushConstantOntoStack(value);
     }
 
+    public void pushConstantOntoStack(int value) {
+        currentMethod.pushConstantOntoStack(value);
+    }
+
     public void addField(String name, String descriptor) {
         FieldVisitor fieldVisitor = classWriter.visitField(Opcodes.ACC_PRIVATE, name, descriptor, null, null);
         fieldVisitor.visitEnd();
@@ -76,4 +76,17 @@ public class MethodGenerator implements AutoCloseable {
             delegate.visitLdcInsn(value);
         }
     }
+
+    // small ints fit in the instruction itself, only larger ones need the constant pool
+    public void pushConstantOntoStack(int value) {
+        if (value >= -1 && value <= 5) {
+            addInstruction(Opcodes.ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            addIntInstruction(Opcodes.BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            addIntInstruction(Opcodes.SIPUSH, value);
+        } else {
+            delegate.visitLdcInsn(value);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package edu.montana.csci.csci468.eval;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -8,6 +9,12 @@ import java.util.Map;
 // TODO - implement proper scoping
 public class CatscriptRuntime {
     LinkedList<Map<String, Object>> scopes = new LinkedList<>();
+    // printed output belongs to the run rather than the program, so a program can be run again,
+    // or by several threads at once, without its tree changing
+    private final StringBuilder output = new StringBuilder();
+    // variables verification resolved to a (depth, slot) coordinate, see SymbolTable.  The
+    // program's frame grows as it is written, a function's is made to size for each call
+    private final Object[][] frames = {new Object[16], null};
 
     public CatscriptRuntime(){
         HashMap<String, Object> globalScope = new HashMap<>();
@@ -35,6 +42,38 @@ public class CatscriptRuntime {
         scopes.peekLast().put(variableName, val);
     }
 
+    public Object getValue(int depth, int slot) {
+        Object[] frame = frames[depth];
+        return slot < frame.length ? frame[slot] : null;
+    }
+
+    public void setValue(int depth, int slot, Object value) {
+        Object[] frame = frames[depth];
+        if (slot >= frame.length) {
+            frame = frames[depth] = Arrays.copyOf(frame, Math.max(slot + 1, frame.length * 2));
+        }
+        frame[slot] = value;
+    }
+
+    // gives a call a frame of its own and returns the caller's, to be put back by exitFunction
+    public Object[] enterFunction(int slots) {
+        Object[] caller = frames[1];
+        frames[1] = new Object[slots];
+        return caller;
+    }
+
+    public void exitFunction(Object[] caller) {
+        frames[1] = caller;
+    }
+
+    public void print(Object v) {
+        output.append(v).append("\n");
+    }
+
+    public String getOutput() {
+        return output.toString();
+    }
+
     public void pushScope() {
         scopes.push(new HashMap<>());
     }
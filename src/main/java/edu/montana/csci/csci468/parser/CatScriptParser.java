@@ -8,9 +8,13 @@ import edu.montana.csci.csci468.tokenizer.TokenList;
 import edu.montana.csci.csci468.tokenizer.TokenType;
 
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
 
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
@@ -18,23 +22,52 @@ public class CatScriptParser {
 
     private TokenList tokens;
     private FunctionDefinitionStatement currentFunctionDefinition;
+    // set when an expression could not be parsed, the statement holding it is then replaced
+    // by a syntax error and tokens are skipped up to the next one in SYNC_TOKENS
+    private Token syntaxError;
+
+    private static final boolean[] SYNC_TOKENS = new boolean[TokenType.values().length];
+    static {
+        for (TokenType type : new TokenType[]{VAR, FOR, IF, ELSE, PRINT, FUNCTION, RETURN, RIGHT_BRACE}) {
+            SYNC_TOKENS[type.ordinal()] = true;
+        }
+    }
 
     public CatScriptProgram parse(String source) {
-        tokens = new CatScriptTokenizer(source).getTokens();
+        return parse(new CatScriptTokenizer(source).getTokens());
+    }
 
-        // first parse an expression
-        CatScriptProgram program = new CatScriptProgram();
-        program.setStart(tokens.getCurrentToken());
-        Expression expression = null;
+    // UTF-8 bytes, as they come from files and request bodies
+    public CatScriptProgram parse(byte[] source) {
+        return parse(new CatScriptTokenizer(source).getTokens());
+    }
+
+    public CatScriptProgram parse(Path file) throws IOException {
+        return parse(CatScriptTokenizer.mapFile(file).getTokens());
+    }
+
+    // tokenizing runs a batch or more ahead of parsing on another thread, so a large source
+    // costs about the slower of the two rather than both
+    public CatScriptProgram parsePipelined(String source) {
+        TokenList tokenList = CatScriptTokenizer.pipelined(source).getTokens();
         try {
-            expression = parseExpression();
-        } catch(RuntimeException re) {
-            // ignore :)
+            return parse(tokenList);
+        } finally {
+            tokenList.close();
         }
-        if (expression == null || tokens.hasMoreTokens()) {
-            tokens.reset();
+    }
+
+    public CatScriptProgram parse(TokenList tokenList) {
+        tokens = tokenList;
+        syntaxError = null;
+
+        CatScriptProgram program = new CatScriptProgram();
+        program.setStart(tokens.getCurrentToken());
+        program.setTokens(tokenList);
+        Expression expression = parseWholeExpression(program);
+        if (expression == null) {
             while (tokens.hasMoreTokens()) {
-                program.addStatement(parseProgramStatement());
+                addProgramStatement(program);
             }
         } else {
             program.setExpression(expression);
@@ -44,8 +77,200 @@ public class CatScriptParser {
         return program;
     }
 
+    // Parses a program again after an edit replacing removedLength characters at offset with
+    // insertedText.  Top level statements the edit does not reach are kept, relexing has already
+    // moved their tokens, and only the statements in between are parsed again.  The previous
+    // program is consumed: its tokens are edited in place and its statements move to the new
+    // program, so it must not be used afterwards, and a shared program is refused
+    public CatScriptProgram reparse(CatScriptProgram previous, int offset, int removedLength, String insertedText) {
+        if (previous.getTokens() == null) {
+            throw new IllegalArgumentException("Only programs parsed from a token list can be reparsed");
+        }
+        if (previous.isShared()) {
+            throw new IllegalArgumentException("A shared program cannot be reparsed, parse its source again");
+        }
+        if (previous.isConsumed()) {
+            throw new IllegalStateException("This program has already been reparsed");
+        }
+        previous.markConsumed();
+        // a statement is kept only if the token after it also ends before the edit, since that
+        // token is what ended the statement
+        List<Statement> oldStatements = previous.getStatements();
+        List<Token> oldStarts = previous.getStatementStarts();
+        int prefix = 0;
+        while (prefix + 1 < oldStarts.size() && oldStarts.get(prefix + 1).getEnd() < offset) {
+            prefix++;
+        }
+        int resumeAt = prefix > 0 ? oldStarts.get(prefix).getStart() : 0;
+
+        TokenList tokenList = CatScriptTokenizer.relex(previous.getTokens(), offset, removedLength, insertedText);
+        if (prefix == 0) {
+            return parse(tokenList);
+        }
+        tokens = tokenList;
+        syntaxError = null;
+        CatScriptProgram program = new CatScriptProgram();
+        program.setStart(tokens.getCurrentToken());
+        program.setTokens(tokenList);
+        // a kept statement is followed by another that starts before the edit, so the program
+        // is still statements and its first one reads as it did
+        for (int i = 0; i < prefix; i++) {
+            program.addStatement(oldStatements.get(i), oldStarts.get(i));
+        }
+        while (tokens.getCurrentToken().getStart() < resumeAt) {
+            tokens.consumeToken();
+        }
+        // once parsing arrives at a token that began an old statement and lies past the edit,
+        // the rest of the tokens are the old ones, so the rest of the statements are too
+        Map<Token, Integer> resumable = new IdentityHashMap<>();
+        for (int i = prefix; i < oldStarts.size(); i++) {
+            resumable.put(oldStarts.get(i), i);
+        }
+        int editEnd = offset + insertedText.length();
+        while (tokens.hasMoreTokens()) {
+            Token current = tokens.getCurrentToken();
+            Integer next = resumable.get(current);
+            if (next != null && current.getStart() >= editEnd) {
+                for (int i = next; i < oldStatements.size(); i++) {
+                    program.addStatement(oldStatements.get(i), oldStarts.get(i));
+                }
+                program.setEnd(previous.getEnd());
+                return program;
+            }
+            addProgramStatement(program);
+        }
+        program.setEnd(tokens.getCurrentToken());
+        return program;
+    }
+
+    // Function definitions are parsed in parallel, each from the tokens between its FUNCTION
+    // and its matching brace, and everything else in order.  A definition parsed apart only
+    // stands if it stopped at the token after its closing brace and the statements before it
+    // end where it starts, otherwise it is parsed again in sequence
+    public CatScriptProgram parseParallel(String source) {
+        TokenList tokenList = CatScriptTokenizer.parallel(source).getTokens();
+        List<Token> spanStarts = new ArrayList<>();
+        List<Token> spanNexts = new ArrayList<>();
+        List<int[]> spans = findFunctionSpans(tokenList, spanStarts, spanNexts);
+        FunctionDefinitionStatement[] functions = IntStream.range(0, spans.size()).parallel().mapToObj(i -> {
+            CatScriptParser parser = new CatScriptParser();
+            parser.tokens = tokenList.slice(spans.get(i)[0], spans.get(i)[1]);
+            FunctionDefinitionStatement function = parser.parseFunctionDefinition();
+            boolean stoppedInPlace = parser.tokens.getCurrentToken() == spanNexts.get(i);
+            return stoppedInPlace && parser.syntaxError == null ? function : null;
+        }).toArray(FunctionDefinitionStatement[]::new);
+
+        tokens = tokenList;
+        syntaxError = null;
+        CatScriptProgram program = new CatScriptProgram();
+        program.setStart(tokens.getCurrentToken());
+        program.setTokens(tokenList);
+        Expression expression = parseWholeExpression(program);
+        if (expression != null) {
+            program.setExpression(expression);
+            program.setEnd(tokens.getCurrentToken());
+            return program;
+        }
+        int span = 0;
+        while (tokens.hasMoreTokens()) {
+            Token current = tokens.getCurrentToken();
+            while (span < spans.size() && spanStarts.get(span).getStart() < current.getStart()) {
+                span++;
+            }
+            if (span < spans.size() && spanStarts.get(span) == current && functions[span] != null) {
+                program.addStatement(functions[span], current);
+                while (tokens.getCurrentToken() != spanNexts.get(span)) {
+                    tokens.consumeToken();
+                }
+            } else {
+                addProgramStatement(program);
+            }
+        }
+        program.setEnd(tokens.getCurrentToken());
+        return program;
+    }
+
+    // the index of each top level FUNCTION and of the token after its matching brace
+    private static List<int[]> findFunctionSpans(TokenList tokenList, List<Token> starts, List<Token> nexts) {
+        List<int[]> spans = new ArrayList<>();
+        int depth = 0;
+        int functionAt = -1;
+        Token function = null;
+        boolean closed = false;
+        int index = 0;
+        for (Token token : tokenList) {
+            if (closed) {
+                spans.add(new int[]{functionAt, index});
+                starts.add(function);
+                nexts.add(token);
+                functionAt = -1;
+                closed = false;
+            }
+            TokenType type = token.getType();
+            if (type == FUNCTION && depth == 0) {
+                functionAt = index;
+                function = token;
+            } else if (type == LEFT_BRACE) {
+                depth++;
+            } else if (type == RIGHT_BRACE && depth > 0) {
+                depth--;
+                closed = depth == 0 && functionAt >= 0;
+            }
+            index++;
+        }
+        return spans;
+    }
+
+    // a statement keyword or an assignment can only start a program, so those skip the
+    // expression entirely.  Anything else is read as an expression, and if more input follows
+    // it becomes the program's first statement, a function call or else a syntax error
+    private Expression parseWholeExpression(CatScriptProgram program) {
+        if (startsProgram() || !tokens.hasMoreTokens()) {
+            return null;
+        }
+        Token start = tokens.getCurrentToken();
+        Expression expression = parseExpression();
+        if (syntaxError == null && !tokens.hasMoreTokens()) {
+            return expression;
+        }
+        if (syntaxError == null && expression instanceof FunctionCallExpression) {
+            FunctionCallStatement statement = new FunctionCallStatement((FunctionCallExpression) expression);
+            statement.setStart(expression.getStart());
+            statement.setEnd(expression.getEnd());
+            program.addStatement(statement, start);
+        } else {
+            program.addStatement(new SyntaxErrorStatement(syntaxError != null ? syntaxError : start), start);
+        }
+        syntaxError = null;
+        return null;
+    }
+
+    private boolean startsProgram() {
+        return tokens.match(PRINT, FOR, IF, ELSE, VAR, FUNCTION, RETURN) ||
+                (tokens.match(IDENTIFIER) && tokens.peekToken(1).getType() == EQUAL);
+    }
+
+    // streamed sources never go back, which deciding on an expression does not need either
+    public CatScriptProgram parse(Readable source) {
+        tokens = new CatScriptTokenizer(source).getTokens();
+        syntaxError = null;
+        CatScriptProgram program = new CatScriptProgram();
+        program.setStart(tokens.getCurrentToken());
+        Expression expression = parseWholeExpression(program);
+        if (expression == null) {
+            while (tokens.hasMoreTokens()) {
+                addProgramStatement(program);
+            }
+        } else {
+            program.setExpression(expression);
+        }
+        program.setEnd(tokens.getCurrentToken());
+        return program;
+    }
+
     public CatScriptProgram parseAsExpression(String source) {
         tokens = new CatScriptTokenizer(source).getTokens();
+        syntaxError = null;
         CatScriptProgram program = new CatScriptProgram();
         program.setStart(tokens.getCurrentToken());
         Expression expression = parseExpression();
@@ -58,6 +283,11 @@ public class CatScriptParser {
     //  Statements
     //============================================================
 
+    private void addProgramStatement(CatScriptProgram program) {
+        Token start = tokens.getCurrentToken();
+        program.addStatement(parseProgramStatement(), start);
+    }
+
     private Statement parseProgramStatement() {
         Statement stmt = parseStatement();
         if (stmt != null) {
@@ -69,62 +299,63 @@ public class CatScriptParser {
     }
 
     private Statement parseStatement() {
-        try {
-
-            Statement stmt = parsePrintStatement();
-            if(stmt != null)
-            {
-                return stmt;
-            }
-            stmt = parseForStatement();
-            if(stmt != null)
-            {
-                return stmt;
-            }
-            stmt = parseIfStatement();
-            if(stmt != null)
-            {
-                return stmt;
-            }
-            stmt = parseVarStatement();
-            if(stmt != null)
-            {
-                return stmt;
-            }
-            stmt = parseAssignmentOrFunctionCallStatement();
-            if(stmt != null)
-            {
-                return stmt;
+        // a statement nested in a block only answers for errors raised while parsing it
+        Token enclosingError = syntaxError;
+        syntaxError = null;
+        Statement stmt = parseStatementOrSyntaxError();
+        if (syntaxError != null) {
+            stmt = new SyntaxErrorStatement(syntaxError);
+            while (tokens.hasMoreTokens() && !SYNC_TOKENS[tokens.getCurrentToken().getType().ordinal()]) {
+                tokens.consumeToken();
             }
-            stmt = parseFunctionDefinition();
+        }
+        syntaxError = enclosingError;
+        return stmt;
+    }
+
+    private Statement parseStatementOrSyntaxError() {
+        Statement stmt = parsePrintStatement();
+        if(stmt != null)
+        {
+            return stmt;
+        }
+        stmt = parseForStatement();
+        if(stmt != null)
+        {
+            return stmt;
+        }
+        stmt = parseIfStatement();
+        if(stmt != null)
+        {
+            return stmt;
+        }
+        stmt = parseVarStatement();
+        if(stmt != null)
+        {
+            return stmt;
+        }
+        stmt = parseAssignmentOrFunctionCallStatement();
+        if(stmt != null)
+        {
+            return stmt;
+        }
+        stmt = parseFunctionDefinition();
+        if(stmt != null)
+        {
+            return stmt;
+        }
+        stmt = parseFunctionDeclarationStatement();
+        if(stmt != null){
+            return stmt;
+        }
+        if(currentFunctionDefinition != null){
+            stmt = parseReturnStatement();
             if(stmt != null)
             {
                 return stmt;
             }
-            stmt = parseFunctionDeclarationStatement();
-            if(stmt != null){
-                return stmt;
-            }
-            if(currentFunctionDefinition != null){
-                stmt = parseReturnStatement();
-                if(stmt != null)
-                {
-                    return stmt;
-                }
-            }
-            return new SyntaxErrorStatement(tokens.consumeToken());
-        } catch (UnknownExpressionParseException e) {
-            SyntaxErrorStatement syntaxErrorStatement = new SyntaxErrorStatement(tokens.consumeToken());
-            while(tokens.hasMoreTokens()) {
-                if(tokens.match(VAR, FOR, IF, ELSE, PRINT )) {
-                    break;
-                }
-                else {
-                    tokens.consumeToken();
-                }
-            }
-            return syntaxErrorStatement;
         }
+        return new SyntaxErrorStatement(tokens.consumeToken());
     }
 
     private Statement parsePrintStatement() {
@@ -152,7 +383,7 @@ public class CatScriptParser {
             forStatement.setExpression(parseExpression());
             require(RIGHT_PAREN, forStatement);
             require(LEFT_BRACE, forStatement);
-            List<Statement> statements = new LinkedList<>();
+            List<Statement> statements = new ArrayList<>();
             while(!tokens.match(RIGHT_BRACE)){
                 statements.add(parseStatement());
                 if(tokens.match(EOF) || tokens.match(RIGHT_BRACE)){
@@ -175,7 +406,7 @@ public class CatScriptParser {
             ifStatement.setExpression(parsedBool);
             require(RIGHT_PAREN, ifStatement);
             require(LEFT_BRACE, ifStatement);
-            List<Statement> statements = new LinkedList<>();
+            List<Statement> statements = new ArrayList<>();
             while(!tokens.match(RIGHT_BRACE)){
                 statements.add(parseStatement());
                 if(tokens.match(EOF)){
@@ -186,19 +417,24 @@ public class CatScriptParser {
             require(RIGHT_BRACE, ifStatement);
             if(tokens.match(ELSE)){
                 tokens.consumeToken();
+                // an else if is the only statement of the else branch, an if that opens an else
+                // block is just its first statement
+                if(tokens.match(IF)){
+                    List<Statement> elseIf = new ArrayList<>(1);
+                    elseIf.add(parseIfStatement());
+                    ifStatement.setElseStatements(elseIf);
+                    return ifStatement;
+                }
                 require(LEFT_BRACE, ifStatement);
                 if(tokens.match(EOF)){
                     ifStatement.addError(ErrorType.UNTERMINATED_ARG_LIST);
                     return ifStatement;
                 }
-                if(tokens.match(IF)){
-                    parseIfStatement();
-                }
                 else {
                     if(tokens.match(EOF)){
                         ifStatement.addError(ErrorType.UNTERMINATED_ARG_LIST);
                     }
-                    List<Statement> elseStatements = new LinkedList<>();
+                    List<Statement> elseStatements = new ArrayList<>();
                     while(!tokens.match(RIGHT_BRACE)){
                         elseStatements.add(parseStatement());
                         if(tokens.match(EOF)){
@@ -346,13 +582,16 @@ public class CatScriptParser {
             }
             func.setType(typeLiteral);
 
+            // returns belong to the innermost function, and to none once its body is closed
+            FunctionDefinitionStatement enclosingFunction = currentFunctionDefinition;
             currentFunctionDefinition = func;
 
             require(LEFT_BRACE, func);
-            LinkedList<Statement> statements = new LinkedList<>();
+            List<Statement> statements = new ArrayList<>();
             while(!tokens.match(RIGHT_BRACE) && tokens.hasMoreTokens()){
                 statements.add(parseStatement());
             }
+            currentFunctionDefinition = enclosingFunction;
             require(RIGHT_BRACE, func);
             func.setBody(statements);
 
@@ -451,7 +690,7 @@ public class CatScriptParser {
                     currentFunctionDefinition.setType(voidType);
                 }
                 require(LEFT_BRACE, currentFunctionDefinition);
-                List<Statement> functionBodyStatements = new LinkedList<>();
+                List<Statement> functionBodyStatements = new ArrayList<>();
                 while (!tokens.match(RIGHT_BRACE)) {
                     if (tokens.match(EOF)) {
                         break;
@@ -501,64 +740,58 @@ public class CatScriptParser {
     //  Expressions
     //============================================================
 
-    private Expression parseExpression() {
-        return parseEqualityExpression();
+    // Binary operators are parsed by precedence climbing.  An operator's binding power and the
+    // node it builds are looked up by token type, 0 meaning the token is not a binary operator,
+    // so a new operator is one entry in each table
+    private static final int[] BINDING_POWER = new int[TokenType.values().length];
+    private static final BinaryNode[] BINARY_NODES = new BinaryNode[TokenType.values().length];
+    static {
+        binaryOperator(EQUAL_EQUAL, 1, EqualityExpression::new);
+        binaryOperator(BANG_EQUAL, 1, EqualityExpression::new);
+        binaryOperator(GREATER, 2, ComparisonExpression::new);
+        binaryOperator(GREATER_EQUAL, 2, ComparisonExpression::new);
+        binaryOperator(LESS, 2, ComparisonExpression::new);
+        binaryOperator(LESS_EQUAL, 2, ComparisonExpression::new);
+        binaryOperator(PLUS, 3, AdditiveExpression::new);
+        binaryOperator(MINUS, 3, AdditiveExpression::new);
+        binaryOperator(SLASH, 4, FactorExpression::new);
+        binaryOperator(STAR, 4, FactorExpression::new);
     }
 
-    private Expression parseAdditiveExpression() {
-        Expression expression = parseFactorExpression();
-        while (tokens.match(PLUS, MINUS)) {
-            Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseFactorExpression();
-            AdditiveExpression additiveExpression = new AdditiveExpression(operator, expression, rightHandSide);
-            additiveExpression.setStart(expression.getStart());
-            additiveExpression.setEnd(rightHandSide.getEnd());
-            expression = additiveExpression;
-        }
-        return expression;
+    private interface BinaryNode {
+        Expression create(Token operator, Expression leftHandSide, Expression rightHandSide);
     }
 
-    private Expression parseFactorExpression() {
-        Expression expression = parseUnaryExpression();
-        while (tokens.match(SLASH, STAR)) {
-            Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseUnaryExpression();
-            FactorExpression factorExpression = new FactorExpression(operator, expression, rightHandSide);
-            factorExpression.setStart(expression.getStart());
-            factorExpression.setEnd(rightHandSide.getEnd());
-            expression = factorExpression;
-        }
-        return expression;
+    private static void binaryOperator(TokenType type, int bindingPower, BinaryNode node) {
+        BINDING_POWER[type.ordinal()] = bindingPower;
+        BINARY_NODES[type.ordinal()] = node;
     }
 
-    private Expression parseEqualityExpression() {
-        Expression expression = parseComparisonExpression();
-        while (tokens.match(EQUAL_EQUAL,BANG_EQUAL)) {
-            Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseComparisonExpression();
-            EqualityExpression equalityExpression = new EqualityExpression(operator, expression, rightHandSide);
-            equalityExpression.setStart(expression.getStart());
-            equalityExpression.setEnd(rightHandSide.getEnd());
-            expression = equalityExpression;
-        }
-        return expression;
+    private Expression parseExpression() {
+        return parseBinaryExpression(1);
     }
 
-    private Expression parseComparisonExpression() {
-        Expression expression = parseAdditiveExpression();
-        while (tokens.match(GREATER, GREATER_EQUAL, LESS,LESS_EQUAL)) {
+    // every operator is left associative, so the right hand side only takes tighter operators
+    private Expression parseBinaryExpression(int minimumPower) {
+        Expression expression = parseUnaryExpression();
+        while (true) {
+            int type = tokens.getCurrentToken().getType().ordinal();
+            int power = BINDING_POWER[type];
+            if (power == 0 || power < minimumPower) {
+                return expression;
+            }
             Token operator = tokens.consumeToken();
-            final Expression rightHandSide = parseAdditiveExpression();
-            ComparisonExpression comparisonExpression = new ComparisonExpression(operator, expression, rightHandSide);
-            comparisonExpression.setStart(expression.getStart());
-            comparisonExpression.setEnd(rightHandSide.getEnd());
-            expression = comparisonExpression;
+            Expression rightHandSide = parseBinaryExpression(power + 1);
+            Expression binaryExpression = BINARY_NODES[type].create(operator, expression, rightHandSide);
+            binaryExpression.setStart(expression.getStart());
+            binaryExpression.setEnd(rightHandSide.getEnd());
+            expression = binaryExpression;
         }
-        return expression;
     }
 
     private Expression parseUnaryExpression() {
-        if (tokens.match(MINUS, NOT)) {
+        TokenType type = tokens.getCurrentToken().getType();
+        if (type == MINUS || type == NOT) {
             Token token = tokens.consumeToken();
             Expression rhs = parseUnaryExpression();
             UnaryExpression unaryExpression = new UnaryExpression(token, rhs);
@@ -612,7 +845,7 @@ public class CatScriptParser {
     }
 
     private Expression parseFunctionCall(Token token) {
-        List<Expression> expr = new LinkedList<>();
+        List<Expression> expr = new ArrayList<>();
         while (!tokens.match(RIGHT_PAREN)) {
             if (!tokens.hasMoreTokens()) {
                 FunctionCallExpression errList = new FunctionCallExpression(token.getStringValue(), expr);
@@ -634,7 +867,7 @@ public class CatScriptParser {
     private Expression parsePrimaryExpression() {
         if (tokens.match(INTEGER)) {
             Token integerToken = tokens.consumeToken();
-            IntegerLiteralExpression integerExpression = new IntegerLiteralExpression(integerToken.getStringValue());
+            IntegerLiteralExpression integerExpression = new IntegerLiteralExpression(integerToken.getIntValue());
             integerExpression.setToken(integerToken);
             return integerExpression;
         }
@@ -644,7 +877,7 @@ public class CatScriptParser {
             strExpression.setToken(strToken);
             return  strExpression;
         }
-        else if(tokens.match(TRUE, FALSE)) {
+        else if(tokens.match(TRUE) || tokens.match(FALSE)) {
             Token boolToken = tokens.consumeToken();
             BooleanLiteralExpression boolExpression = new BooleanLiteralExpression(boolToken.getType() == TRUE);
             boolExpression.setToken(boolToken);
@@ -669,7 +902,7 @@ public class CatScriptParser {
         }
         else if (tokens.match(LEFT_BRACKET)){
             Token start = tokens.consumeToken();
-            List<Expression> values = new LinkedList<>();
+            List<Expression> values = new ArrayList<>();
             if (!tokens.match(RIGHT_BRACKET)) {
                 do {
                     values.add(parseExpression());
@@ -696,19 +929,15 @@ public class CatScriptParser {
             return expr;
         }
         else {
-
-            throw new UnknownExpressionParseException();
-
-//            SyntaxErrorExpression syntaxErrorExpression = new SyntaxErrorExpression(tokens.consumeToken());
-//            syntaxErrorExpression.setToken(tokens.consumeToken());
-//            return syntaxErrorExpression;
+            // EOF is never consumed, so enclosing loops that wait for a closing token still end
+            Token token = tokens.consumeToken();
+            if (syntaxError == null) {
+                syntaxError = token;
+            }
+            return new SyntaxErrorExpression(token);
         }
     }
 
-    class UnknownExpressionParseException extends RuntimeException{
-
-    }
-
 
 
 
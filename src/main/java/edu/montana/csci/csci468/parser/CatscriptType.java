@@ -1,12 +1,19 @@
 package edu.montana.csci.csci468.parser;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 
+// Types are interned, so there is exactly one instance of each and two types are equal only
+// if they are the same object.  Every type is numbered as it is created and carries the set of
+// type numbers it is assignable from, filled in for it and for every older type at that point,
+// so assignability is a bit test rather than a walk over classes and component types.  New
+// types are only created under the registry's lock, and a type's bits are replaced rather than
+// changed in place, so types can be shared by verifies running on several threads
 public class CatscriptType {
 
+    private static final List<CatscriptType> registry = new ArrayList<>();
+
     public static final CatscriptType INT = new CatscriptType("int", Integer.class);
     public static final CatscriptType STRING = new CatscriptType("string", String.class);
     public static final CatscriptType BOOLEAN = new CatscriptType("bool", Boolean.class);
@@ -14,55 +21,103 @@ public class CatscriptType {
     public static final CatscriptType NULL = new CatscriptType("null", Object.class);
     public static final CatscriptType VOID = new CatscriptType("void", Object.class);
 
+    static {
+        synchronized (registry) {
+            for (CatscriptType type : registry) {
+                link(type);
+            }
+        }
+    }
+
     private final String name;
     private final Class javaClass;
+    private final CatscriptType componentType;
+    private final int id;
+    private volatile long[] assignableFrom = new long[1];
+    private volatile ListType listType;
 
-    public CatscriptType(String name, Class javaClass) {
+    private CatscriptType(String name, Class javaClass, CatscriptType componentType) {
         this.name = name;
         this.javaClass = javaClass;
+        this.componentType = componentType;
+        synchronized (registry) {
+            this.id = registry.size();
+            registry.add(this);
+        }
+    }
+
+    private CatscriptType(String name, Class javaClass) {
+        this(name, javaClass, null);
     }
 
     public boolean isAssignableFrom(CatscriptType type) {
-        if (type == VOID) {
-            return false;
-        } else if (type == NULL) {
-            return true;
-        } else if (this.javaClass.isAssignableFrom(type.javaClass)) {
-            return true;
+        long[] bits = assignableFrom;
+        int word = type.id >>> 6;
+        return word < bits.length && (bits[word] & (1L << type.id)) != 0;
+    }
+
+    // fills in the bits between a new type and every type before it, under the registry's lock
+    private static void link(CatscriptType type) {
+        for (CatscriptType existing : registry) {
+            if (existing.id > type.id) {
+                break;
+            }
+            if (existing.accepts(type)) {
+                existing.allow(type.id);
+            }
+            if (type.accepts(existing)) {
+                type.allow(existing.id);
+            }
         }
-        return false;
     }
 
-    // TODO memoize this call
-    static Map<CatscriptType, CatscriptType> cacheMap = new HashMap<>();
-    public static CatscriptType getListType(CatscriptType type) {
-        CatscriptType matchingType = cacheMap.get(type);
-        if(matchingType != null){
-            return matchingType;
+    // the rule the bits are computed from, only asked once for each pair of types
+    private boolean accepts(CatscriptType type) {
+        if (type == NULL) {
+            return true;
+        } else if (componentType != null) {
+            return type.componentType != null && componentType.isAssignableFrom(type.componentType);
+        } else if (type == VOID) {
+            return false;
         }
-        else{
-            ListType listType = new ListType(type);
-            cacheMap.put(type, listType);
-            return listType;
+        return javaClass.isAssignableFrom(type.javaClass);
+    }
+
+    private void allow(int other) {
+        long[] bits = assignableFrom;
+        int word = other >>> 6;
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+        } else {
+            bits = bits.clone();
         }
+        bits[word] |= 1L << other;
+        assignableFrom = bits;
     }
 
-    @Override
-    public String toString() {
-        return name;
+    public static CatscriptType getListType(CatscriptType type) {
+        ListType listType = type.listType;
+        if (listType == null) {
+            synchronized (registry) {
+                listType = type.listType;
+                if (listType == null) {
+                    listType = new ListType(type);
+                    link(listType);
+                    type.listType = listType;
+                }
+            }
+        }
+        return listType;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        CatscriptType that = (CatscriptType) o;
-        return Objects.equals(name, that.name);
+    // a small number that is unique to this type
+    public int getId() {
+        return id;
     }
 
     @Override
-    public int hashCode() {
-        return Objects.hash(name);
+    public String toString() {
+        return name;
     }
 
     public Class getJavaType() {
@@ -70,30 +125,13 @@ public class CatscriptType {
     }
 
     public static class ListType extends CatscriptType {
-        private final CatscriptType componentType;
-        public ListType(CatscriptType componentType) {
-            super("list<" + componentType.toString() + ">", List.class);
-            this.componentType = componentType;
-        }
 
-        @Override
-        public boolean isAssignableFrom(CatscriptType type) {
-            if (type == NULL) {
-                return true;
-            } else if (type instanceof ListType) {
-                ListType otherList = (ListType) type;
-                return this.componentType.isAssignableFrom(otherList.componentType);
-            }
-            return false;
+        private ListType(CatscriptType componentType) {
+            super("list<" + componentType.toString() + ">", List.class, componentType);
         }
 
         public CatscriptType getComponentType() {
-            return componentType;
-        }
-
-        @Override
-        public String toString() {
-            return super.toString() + "<" + componentType.toString() + ">";
+            return super.componentType;
         }
     }
 
@@ -0,0 +1,177 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.parser.statements.Statement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+// Verifies the successive versions of one document, each reparsed from the last with
+// CatScriptParser.reparse, checking again only the top level statements an edit can have
+// changed.  While a statement or function body is checked its symbol table records each global
+// name it looked up and what it came to, see SymbolTable.record and forFunction.  A statement
+// is checked again when it was parsed anew or when one of those names now comes to something
+// else, a global of another type or slot or a function of another signature, so editing a body
+// only checks that body and editing a signature only checks its callers.  A kept statement
+// that is not a function declares its globals again and takes as many global slots as it did,
+// and only if the globals before it take as many as they did, so its slots still hold.  The
+// errors found are kept with each statement, so a kept statement is not walked at all.
+// One verifier is meant for one document and one thread
+public class IncrementalVerifier {
+
+    private Map<Statement, Validation> validations = new IdentityHashMap<>();
+    private int checkedStatements;
+    private int keptStatements;
+
+    public void verify(CatScriptProgram program) {
+        checkedStatements = 0;
+        keptStatements = 0;
+        if (program.isExpression()) {
+            validations = new IdentityHashMap<>();
+            program.verify();
+            return;
+        }
+        ParseElement.discardOwnValidationErrors(program);
+        for (Statement statement : program.getStatements()) {
+            if (statement instanceof FunctionDefinitionStatement) {
+                ParseElement.discardOwnValidationErrors(statement);
+            }
+        }
+        SymbolTable symbolTable = new SymbolTable();
+        ((ParseElement) program).registerFunctions(symbolTable);
+
+        Map<Statement, Validation> current = new IdentityHashMap<>();
+        for (Statement statement : program.getStatements()) {
+            Validation previous = validations.get(statement);
+            if (previous != null && previous.stillHolds(symbolTable)) {
+                if (statement instanceof FunctionDefinitionStatement) {
+                    ParseElement.restoreErrors(statement, previous.ownErrors);
+                } else {
+                    symbolTable.redeclare(previous.declarations, previous.slotsAfter);
+                }
+                current.put(statement, previous);
+                keptStatements++;
+            } else if (statement instanceof FunctionDefinitionStatement) {
+                current.put(statement, check((FunctionDefinitionStatement) statement, symbolTable));
+                checkedStatements++;
+            } else {
+                current.put(statement, check(statement, symbolTable));
+                checkedStatements++;
+            }
+        }
+        validations = current;
+
+        // a function's own errors are found again each time, since registering it can find
+        // another function of the same name, so only its body's are kept
+        LinkedList<ParseError> collector = new LinkedList<>(program.getErrors());
+        for (Statement statement : program.getStatements()) {
+            if (statement instanceof FunctionDefinitionStatement) {
+                collector.addAll(statement.getErrors());
+            }
+            collector.addAll(current.get(statement).errors);
+        }
+        if (collector.size() > 0) {
+            throw new ParseErrorException(collector);
+        }
+    }
+
+    private Validation check(FunctionDefinitionStatement function, SymbolTable symbolTable) {
+        for (ParseElement child : function.getChildren()) {
+            ParseElement.discardValidationErrors(child);
+        }
+        Map<String, Object> dependencies = new HashMap<>();
+        int registrationErrors = function.getErrors().size();
+        function.validate(symbolTable.forFunction(dependencies));
+        List<ParseError> errors = function.getErrors();
+        List<ParseError> ownErrors = new ArrayList<>(errors.subList(registrationErrors, errors.size()));
+        LinkedList<ParseError> bodyErrors = new LinkedList<>();
+        for (ParseElement child : function.getChildren()) {
+            ParseElement.collectErrors(bodyErrors, child);
+        }
+        return new Validation(dependencies, Collections.emptyMap(), -1, -1, ownErrors, new ArrayList<>(bodyErrors));
+    }
+
+    private Validation check(Statement statement, SymbolTable symbolTable) {
+        ParseElement.discardValidationErrors(statement);
+        Map<String, Object> dependencies = new HashMap<>();
+        Map<String, SymbolTable.Variable> declarations = new HashMap<>();
+        int slotsBefore = symbolTable.getGlobalSlots();
+        symbolTable.record(dependencies, declarations);
+        statement.validate(symbolTable);
+        symbolTable.record(null, null);
+        LinkedList<ParseError> errors = new LinkedList<>();
+        ParseElement.collectErrors(errors, statement);
+        return new Validation(dependencies, declarations, slotsBefore, symbolTable.getGlobalSlots(),
+                Collections.emptyList(), new ArrayList<>(errors));
+    }
+
+    // how many top level statements the last verify checked, and how many it kept as they were
+    public int getCheckedStatements() {
+        return checkedStatements;
+    }
+
+    public int getKeptStatements() {
+        return keptStatements;
+    }
+
+    private static class Validation {
+        private final Map<String, Object> dependencies;
+        private final Map<String, SymbolTable.Variable> declarations;
+        // the global slots taken before and after the statement, -1 for a function
+        private final int slotsBefore;
+        private final int slotsAfter;
+        // the errors validating put on a function itself, and those in the rest of the statement
+        private final List<ParseError> ownErrors;
+        private final List<ParseError> errors;
+
+        Validation(Map<String, Object> dependencies, Map<String, SymbolTable.Variable> declarations,
+                   int slotsBefore, int slotsAfter, List<ParseError> ownErrors, List<ParseError> errors) {
+            this.dependencies = dependencies;
+            this.declarations = declarations;
+            this.slotsBefore = slotsBefore;
+            this.slotsAfter = slotsAfter;
+            this.ownErrors = ownErrors;
+            this.errors = errors;
+        }
+
+        // at the top level, so the globals in the table are those declared before the statement
+        boolean stillHolds(SymbolTable symbolTable) {
+            if (slotsBefore >= 0 && slotsBefore != symbolTable.getGlobalSlots()) {
+                return false;
+            }
+            for (Map.Entry<String, Object> dependency : dependencies.entrySet()) {
+                if (!sameMeaning(dependency.getValue(), symbolTable.getSymbol(dependency.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean sameMeaning(Object before, Object now) {
+            if (before instanceof SymbolTable.Variable && now instanceof SymbolTable.Variable) {
+                SymbolTable.Variable was = (SymbolTable.Variable) before;
+                SymbolTable.Variable is = (SymbolTable.Variable) now;
+                return was.getType() == is.getType() && was.getDepth() == is.getDepth() && was.getSlot() == is.getSlot();
+            } else if (before instanceof FunctionDefinitionStatement && now instanceof FunctionDefinitionStatement) {
+                FunctionDefinitionStatement was = (FunctionDefinitionStatement) before;
+                FunctionDefinitionStatement is = (FunctionDefinitionStatement) now;
+                if (was.getType() != is.getType() || was.getParameterCount() != is.getParameterCount()) {
+                    return false;
+                }
+                for (int i = 0; i < was.getParameterCount(); i++) {
+                    if (was.getParameterType(i) != is.getParameterType(i)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return before == now;
+        }
+    }
+}
@@ -8,6 +8,9 @@ import edu.montana.csci.csci468.tokenizer.Token;
 import org.objectweb.asm.Opcodes;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
@@ -16,16 +19,23 @@ import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFo
 
 public abstract class ParseElement {
 
+    private static final ParseElement[] NO_CHILDREN = new ParseElement[0];
+
+    // Children are kept in an array that doubles from two slots, and the error list is only made
+    // for an element that has an error.  With compressed references an element is a 12 byte
+    // header and 28 bytes of fields here, its children array a 16 byte header and 4 bytes a
+    // slot, so a binary expression comes to about 80 bytes and a leaf to 40 plus its own fields.
+    // Parsing allocates a little over 100 bytes a node, temporaries included, as measured by
+    // ParseElementFootprintBenchmark
     protected ParseElement parent;
     private Token start;
     private Token end;
-    private List<ParseElement> children;
+    private ParseElement[] children = NO_CHILDREN;
+    private int childCount;
     private List<ParseError> errors;
-
-    public ParseElement() {
-        this.errors = new LinkedList<>();
-        this.children = new LinkedList<>();
-    }
+    // how many of the errors were found by the parser, the rest come from validation and are
+    // dropped when an element kept across a reparse is verified again
+    private int parseErrorCount = -1;
 
     public CatScriptProgram getProgram() {
         if (this.getParent() instanceof CatScriptProgram) {
@@ -61,11 +71,11 @@ public abstract class ParseElement {
     }
 
     public List<ParseError> getErrors() {
-        return errors;
+        return errors == null ? Collections.emptyList() : errors;
     }
 
     public boolean hasErrors() {
-        return !errors.isEmpty();
+        return errors != null && !errors.isEmpty();
     }
 
     public void addError(ErrorType errorType, Object... args) {
@@ -73,17 +83,33 @@ public abstract class ParseElement {
     }
 
     public void addError(ErrorType errorMessage, Token token, Object... args) {
+        if (errors == null) {
+            errors = new ArrayList<>(2);
+        }
         errors.add(new ParseError(token, errorMessage, args));
     }
 
+    // puts back errors an earlier validation found, see IncrementalVerifier
+    static void restoreErrors(ParseElement parseElement, List<ParseError> previous) {
+        if (!previous.isEmpty()) {
+            if (parseElement.errors == null) {
+                parseElement.errors = new ArrayList<>(previous.size());
+            }
+            parseElement.errors.addAll(previous);
+        }
+    }
+
     protected <T extends ParseElement> T addChild(T element) {
         element.parent = this;
-        children.add(element);
+        if (childCount == children.length) {
+            children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+        }
+        children[childCount++] = element;
         return element;
     }
 
     public List<ParseElement> getChildren() {
-        return children;
+        return Arrays.asList(children).subList(0, childCount);
     }
 
     @Override
@@ -92,11 +118,11 @@ public abstract class ParseElement {
     }
 
     public boolean hasError(ErrorType errorMessage) {
-        return errors.stream().anyMatch(parseError -> Objects.equals(parseError.getErrorType(), errorMessage));
+        return getErrors().stream().anyMatch(parseError -> Objects.equals(parseError.getErrorType(), errorMessage));
     }
 
-    private void registerFunctions(SymbolTable symbolTable) {
-        for (ParseElement child : children) {
+    void registerFunctions(SymbolTable symbolTable) {
+        for (ParseElement child : getChildren()) {
             if (child instanceof FunctionDefinitionStatement) {
                 FunctionDefinitionStatement func = (FunctionDefinitionStatement) child;
                 if (symbolTable.hasSymbol(func.getName())) {
@@ -110,7 +136,17 @@ public abstract class ParseElement {
 
 
     public final void verify() {
-        SymbolTable symbolTable = new SymbolTable();
+        verify(false);
+    }
+
+    // checks function bodies in parallel, see CatScriptProgram.validate
+    public final void verifyInParallel() {
+        verify(true);
+    }
+
+    private void verify(boolean parallel) {
+        discardValidationErrors(this);
+        SymbolTable symbolTable = new SymbolTable(parallel);
         registerFunctions(symbolTable);
         validate(symbolTable);
 
@@ -123,7 +159,25 @@ public abstract class ParseElement {
 
     public abstract void validate(SymbolTable symbolTable);
 
-    private void collectErrors(LinkedList<ParseError> collector, ParseElement parseElement){
+    static void discardValidationErrors(ParseElement parseElement) {
+        discardOwnValidationErrors(parseElement);
+        for (ParseElement child : parseElement.getChildren()) {
+            discardValidationErrors(child);
+        }
+    }
+
+    // the element's own validation errors, leaving its children's
+    static void discardOwnValidationErrors(ParseElement parseElement) {
+        if (parseElement.parseErrorCount < 0) {
+            parseElement.parseErrorCount = parseElement.getErrors().size();
+        } else if (parseElement.errors != null) {
+            while (parseElement.errors.size() > parseElement.parseErrorCount) {
+                parseElement.errors.remove(parseElement.errors.size() - 1);
+            }
+        }
+    }
+
+    static void collectErrors(LinkedList<ParseError> collector, ParseElement parseElement){
         collector.addAll(parseElement.getErrors());
         for (ParseElement child : parseElement.getChildren()) {
             collectErrors(collector, child);
@@ -138,6 +192,11 @@ public abstract class ParseElement {
         throw new UnsupportedOperationException("compile needs to be implemented for " + this.getClass().getName());
     }
 
+    // writes the node's tag, its fields and then its children, see ProgramWriter
+    public void write(ProgramWriter out) {
+        throw new UnsupportedOperationException("write needs to be implemented for " + this.getClass().getName());
+    }
+
 
     protected void box(ByteCodeGenerator code, CatscriptType type) {
         if (type.equals(CatscriptType.INT)) {
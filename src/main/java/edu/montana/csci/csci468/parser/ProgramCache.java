@@ -0,0 +1,161 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Parsed and verified programs keyed by a SHA-256 of their source, so source that is sent again
+// is neither parsed nor verified again.  At most maxEntries programs are held, each for at most
+// maxAge, and the least recently used goes first when the cache is full.  Cached programs are
+// shared between threads, so they are run with a CatscriptRuntime of their own
+public class ProgramCache {
+
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final LongSupplier clock;
+    // in access order, so the eldest entry is the least recently used, and guarded by itself
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ProgramCache(int maxEntries, Duration maxAge) {
+        this(maxEntries, maxAge, System::nanoTime);
+    }
+
+    ProgramCache(int maxEntries, Duration maxAge, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ProgramCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Entry lookup(String source) {
+        String key = hash(source);
+        long now = clock.getAsLong();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && now - entry.created > maxAgeNanos) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(source, now);
+                entries.put(key, entry);
+                misses.incrementAndGet();
+            } else {
+                hits.incrementAndGet();
+            }
+        }
+        // parsed outside the lock, only one thread parses a given source and the others wait for it.
+        // A source that cannot be parsed at all is not kept
+        try {
+            entry.load();
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            throw e;
+        }
+        return entry;
+    }
+
+    static String hash(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public static class Entry {
+
+        private final long created;
+        private String source;
+        private CatScriptProgram program;
+        private ParseErrorException errors;
+        // anything else verifying threw, the program is still kept for its parse tree
+        private RuntimeException failure;
+
+        Entry(String source, long created) {
+            this.source = source;
+            this.created = created;
+        }
+
+        private synchronized void load() {
+            if (program != null) {
+                return;
+            }
+            CatScriptProgram program = new CatScriptParser().parse(source);
+            program.markShared();
+            try {
+                program.verify();
+            } catch (ParseErrorException e) {
+                errors = e;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            this.program = program;
+            source = null;
+        }
+
+        // the program, verified unless hasFailed, and with its errors attached if verification failed
+        public synchronized CatScriptProgram getProgram() {
+            return program;
+        }
+
+        public synchronized boolean hasErrors() {
+            return errors != null;
+        }
+
+        public synchronized ParseErrorException getErrors() {
+            return errors;
+        }
+
+        public synchronized boolean hasFailed() {
+            return failure != null;
+        }
+
+        public synchronized RuntimeException getFailure() {
+            return failure;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.parser.expressions.*;
+import edu.montana.csci.csci468.parser.statements.*;
+import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.tokenizer.TokenType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static edu.montana.csci.csci468.parser.ProgramWriter.*;
+
+// Loads a tree written by ProgramWriter.  Nodes carry the types verification resolved, so the
+// result can be run, transpiled or compiled straight away, but it has no tokens behind it
+public class ProgramReader {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+    private final CatscriptType[] types;
+    // return statements belong to the function whose body is being read
+    private FunctionDefinitionStatement currentFunction;
+
+    public ProgramReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a serialized CatScript program");
+        }
+        int version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported serialized program version " + version);
+        }
+        strings = new String[readInt() + 1];
+        for (int i = 1; i < strings.length; i++) {
+            byte[] bytes = new byte[readInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        types = new CatscriptType[readInt() + 1];
+        for (int i = 1; i < types.length; i++) {
+            types[i] = readTypeEntry();
+        }
+        // the length of the nodes, which are read as they are asked for
+        readInt();
+    }
+
+    private CatscriptType readTypeEntry() {
+        byte kind = buffer.get();
+        switch (kind) {
+            case INT_TYPE: return CatscriptType.INT;
+            case STRING_TYPE: return CatscriptType.STRING;
+            case BOOLEAN_TYPE: return CatscriptType.BOOLEAN;
+            case OBJECT_TYPE: return CatscriptType.OBJECT;
+            case NULL_TYPE: return CatscriptType.NULL;
+            case VOID_TYPE: return CatscriptType.VOID;
+            case LIST_TYPE: return CatscriptType.getListType(types[readInt()]);
+            default: throw new IllegalArgumentException("Unknown type kind " + kind);
+        }
+    }
+
+    public ParseElement readNode() {
+        byte tag = buffer.get();
+        switch (tag) {
+            case PROGRAM: return CatScriptProgram.read(this);
+            case PRINT: return PrintStatement.read(this);
+            case FOR: return ForStatement.read(this);
+            case IF: return IfStatement.read(this);
+            case VARIABLE: return VariableStatement.read(this);
+            case ASSIGNMENT: return AssignmentStatement.read(this);
+            case FUNCTION_CALL_STATEMENT: return FunctionCallStatement.read(this);
+            case FUNCTION_DEFINITION: return FunctionDefinitionStatement.read(this);
+            case RETURN: return ReturnStatement.read(this);
+            case ADDITIVE: return AdditiveExpression.read(this);
+            case BOOLEAN: return BooleanLiteralExpression.read(this);
+            case COMPARISON: return ComparisonExpression.read(this);
+            case EQUALITY: return EqualityExpression.read(this);
+            case FACTOR: return FactorExpression.read(this);
+            case FUNCTION_CALL: return FunctionCallExpression.read(this);
+            case IDENTIFIER: return IdentifierExpression.read(this);
+            case INTEGER: return IntegerLiteralExpression.read(this);
+            case LIST: return ListLiteralExpression.read(this);
+            case NULL: return NullLiteralExpression.read(this);
+            case PARENTHESIZED: return ParenthesizedExpression.read(this);
+            case STRING: return StringLiteralExpression.read(this);
+            case TYPE_LITERAL: return TypeLiteral.read(this);
+            case UNARY: return UnaryExpression.read(this);
+            default: throw new IllegalArgumentException("Unknown node tag " + tag);
+        }
+    }
+
+    public Expression readExpression() {
+        return (Expression) readNode();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends ParseElement> List<T> readNodes() {
+        int count = readInt();
+        List<T> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elements.add((T) readNode());
+        }
+        return elements;
+    }
+
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    public int readInt() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    public int readSignedInt() {
+        int value = readInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public String readString() {
+        return strings[readInt()];
+    }
+
+    public CatscriptType readType() {
+        return types[readInt()];
+    }
+
+    public Token readToken() {
+        TokenType type = TOKEN_TYPES[readInt()];
+        return new Token(0, 0, 0, 0, readString(), type, null);
+    }
+
+    public FunctionDefinitionStatement getCurrentFunction() {
+        return currentFunction;
+    }
+
+    public void setCurrentFunction(FunctionDefinitionStatement function) {
+        this.currentFunction = function;
+    }
+}
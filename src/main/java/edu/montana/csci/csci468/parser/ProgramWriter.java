@@ -0,0 +1,194 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.tokenizer.Token;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes a verified parse tree in a compact binary form that ProgramReader loads without the
+// tokenizer or the parser.  The layout is
+//
+//   magic, version
+//   strings: count, then each string once as its UTF-8 length and bytes
+//   types:   count, then each type as a kind, list types followed by their component's index
+//   nodes:   the tree in pre-order, each node a tag followed by its own fields and children
+//
+// Numbers are unsigned varints, zigzag encoded where they may be negative, and strings and
+// types are written as indexes into their tables, 0 standing for null
+public class ProgramWriter {
+
+    static final int MAGIC = 0xCA75C817;
+    static final int VERSION = 2;
+
+    public static final byte PROGRAM = 1;
+    public static final byte PRINT = 2;
+    public static final byte FOR = 3;
+    public static final byte IF = 4;
+    public static final byte VARIABLE = 5;
+    public static final byte ASSIGNMENT = 6;
+    public static final byte FUNCTION_CALL_STATEMENT = 7;
+    public static final byte FUNCTION_DEFINITION = 8;
+    public static final byte RETURN = 9;
+    public static final byte ADDITIVE = 10;
+    public static final byte BOOLEAN = 11;
+    public static final byte COMPARISON = 12;
+    public static final byte EQUALITY = 13;
+    public static final byte FACTOR = 14;
+    public static final byte FUNCTION_CALL = 15;
+    public static final byte IDENTIFIER = 16;
+    public static final byte INTEGER = 17;
+    public static final byte LIST = 18;
+    public static final byte NULL = 19;
+    public static final byte PARENTHESIZED = 20;
+    public static final byte STRING = 21;
+    public static final byte TYPE_LITERAL = 22;
+    public static final byte UNARY = 23;
+
+    static final byte INT_TYPE = 0;
+    static final byte STRING_TYPE = 1;
+    static final byte BOOLEAN_TYPE = 2;
+    static final byte OBJECT_TYPE = 3;
+    static final byte NULL_TYPE = 4;
+    static final byte VOID_TYPE = 5;
+    static final byte LIST_TYPE = 6;
+
+    private final ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private final List<CatscriptType> types = new ArrayList<>();
+    private final Map<CatscriptType, Integer> typeIndexes = new HashMap<>();
+
+    // the tree is written to a buffer first, since the tables it fills in go ahead of it
+    public void write(ParseElement root, DataOutput out) throws IOException {
+        writeNode(root);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarInt(out, strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+        writeVarInt(out, types.size());
+        for (CatscriptType type : types) {
+            if (type instanceof CatscriptType.ListType) {
+                out.writeByte(LIST_TYPE);
+                writeVarInt(out, typeIndexes.get(((CatscriptType.ListType) type).getComponentType()));
+            } else {
+                out.writeByte(kindOf(type));
+            }
+        }
+        writeVarInt(out, nodes.size());
+        out.write(nodes.toByteArray());
+    }
+
+    public void writeNode(ParseElement element) {
+        if (element.hasErrors()) {
+            throw new IllegalStateException("Only programs without errors can be written, " + element + " has " +
+                    element.getErrors().size());
+        }
+        element.write(this);
+    }
+
+    public void writeNodes(List<? extends ParseElement> elements) {
+        writeInt(elements.size());
+        for (ParseElement element : elements) {
+            writeNode(element);
+        }
+    }
+
+    public void writeTag(byte tag) {
+        nodes.write(tag);
+    }
+
+    public void writeBoolean(boolean value) {
+        nodes.write(value ? 1 : 0);
+    }
+
+    public void writeInt(int value) {
+        writeVarInt(value);
+    }
+
+    public void writeSignedInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = stringIndexes.get(value);
+        if (index == null) {
+            strings.add(value);
+            index = strings.size();
+            stringIndexes.put(value, index);
+        }
+        writeVarInt(index);
+    }
+
+    public void writeType(CatscriptType type) {
+        writeVarInt(typeIndex(type));
+    }
+
+    // operators only need their type and text once there is no source to point into
+    public void writeToken(Token token) {
+        writeInt(token.getType().ordinal());
+        writeString(token.getStringValue());
+    }
+
+    private int typeIndex(CatscriptType type) {
+        if (type == null) {
+            return 0;
+        }
+        Integer index = typeIndexes.get(type);
+        if (index == null) {
+            if (type instanceof CatscriptType.ListType) {
+                typeIndex(((CatscriptType.ListType) type).getComponentType());
+            }
+            types.add(type);
+            index = types.size();
+            typeIndexes.put(type, index);
+        }
+        return index;
+    }
+
+    private static byte kindOf(CatscriptType type) {
+        if (type.equals(CatscriptType.INT)) {
+            return INT_TYPE;
+        } else if (type.equals(CatscriptType.STRING)) {
+            return STRING_TYPE;
+        } else if (type.equals(CatscriptType.BOOLEAN)) {
+            return BOOLEAN_TYPE;
+        } else if (type.equals(CatscriptType.OBJECT)) {
+            return OBJECT_TYPE;
+        } else if (type.equals(CatscriptType.NULL)) {
+            return NULL_TYPE;
+        } else if (type.equals(CatscriptType.VOID)) {
+            return VOID_TYPE;
+        }
+        throw new IllegalStateException("No encoding for type " + type);
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            nodes.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        nodes.write(value);
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -2,48 +2,115 @@ package edu.montana.csci.csci468.parser;
 
 import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
+// Besides its type, each variable is given a (depth, slot) coordinate as it is declared, so
+// that the runtime can keep variables in arrays rather than look them up by name.  Depth
+// GLOBAL is the program's frame and depth LOCAL the frame of the function being called, which
+// holds its parameters first and then every variable declared in its body.  Slots are not
+// reused when a block ends, so a frame's size is the number of variables declared in it.
+// A function body can also be checked on a table of its own, see forFunction, which reads the
+// program's globals without copying them
 public class SymbolTable {
 
-    LinkedList<Map<String, Object>> symbolStack = new LinkedList<>();
+    public static final int GLOBAL = 0;
+    public static final int LOCAL = 1;
+
+    List<Map<String, Object>> symbolStack = new ArrayList<>();
+    private int depth = GLOBAL;
+    private final int[] slotCounts = new int[2];
+    private final boolean parallel;
+    // the global scope of the table this one was made from, or null, and how many of its
+    // variables had been declared at the point the function was
+    private final Map<String, Object> globals;
+    private final int visibleGlobals;
+    // what each name looked up in globals came to, null when it was not found, and the globals
+    // declared, while a statement or function body is being recorded, see IncrementalVerifier
+    private Map<String, Object> dependencies;
+    private Map<String, Variable> declarations;
 
     public SymbolTable(){
+        this(false);
+    }
+
+    public SymbolTable(boolean parallel) {
+        this(parallel, null, 0, null);
+    }
+
+    private SymbolTable(boolean parallel, Map<String, Object> globals, int visibleGlobals,
+                        Map<String, Object> dependencies) {
+        this.parallel = parallel;
+        this.globals = globals;
+        this.visibleGlobals = visibleGlobals;
+        this.dependencies = dependencies;
         HashMap<String, Object> globalScope = new HashMap<>();
-        symbolStack.push(globalScope);
+        symbolStack.add(globalScope);
+    }
+
+    // whether function bodies may be checked on tables of their own, in parallel
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    // a table for checking the body of a function declared at this point of the program, which
+    // sees every function and the globals declared so far.  The global scope is shared rather
+    // than copied, so nothing may be declared on this table once the new one is in use
+    public SymbolTable forFunction() {
+        return forFunction(null);
+    }
+
+    // as forFunction(), also putting every name the body looks up outside its own frame in
+    // dependencies, with what the name came to
+    SymbolTable forFunction(Map<String, Object> dependencies) {
+        return new SymbolTable(false, symbolStack.get(0), slotCounts[GLOBAL], dependencies);
     }
 
     public boolean hasSymbol(String name) {
         return getSymbol(name) != null;
     }
 
-    private Object getSymbol(String name) {
-        Iterator<Map<String, Object>> mapIterator = symbolStack.descendingIterator();
-        while (mapIterator.hasNext()) {
-            Map<String, Object> next =  mapIterator.next();
-            Object val = next.get(name);
+    Object getSymbol(String name) {
+        for (int i = symbolStack.size() - 1; i > 0; i--) {
+            Object val = symbolStack.get(i).get(name);
             if (val != null) {
                 return val;
             }
         }
-        return null;
+        Object val = globals == null ? symbolStack.get(0).get(name) : globals.get(name);
+        if (globals != null && val instanceof Variable && ((Variable) val).getSlot() >= visibleGlobals) {
+            val = null;
+        }
+        if (dependencies != null) {
+            dependencies.put(name, val);
+        }
+        return val;
     }
 
     public void registerFunction(String name, FunctionDefinitionStatement func) {
-        symbolStack.peek().put(name, func);
+        currentScope().put(name, func);
     }
 
-    public void registerSymbol(String name, CatscriptType type) {
-        symbolStack.peek().put(name, type);
+    public Variable registerSymbol(String name, CatscriptType type) {
+        Variable variable = new Variable(type, depth, slotCounts[depth]++);
+        currentScope().put(name, variable);
+        if (declarations != null && symbolStack.size() == 1) {
+            declarations.put(name, variable);
+        }
+        return variable;
     }
 
     public CatscriptType getSymbolType(String name) {
+        Variable variable = getVariable(name);
+        return variable == null ? null : variable.getType();
+    }
+
+    public Variable getVariable(String name) {
         Object object = getSymbol(name);
-        if (object instanceof CatscriptType) {
-            return (CatscriptType) object;
+        if (object instanceof Variable) {
+            return (Variable) object;
         } else {
             return null;
         }
@@ -58,11 +125,71 @@ public class SymbolTable {
         }
     }
 
+    // starts putting the global lookups and declarations of the top level statement about to be
+    // validated in these maps, or stops with nulls
+    void record(Map<String, Object> dependencies, Map<String, Variable> declarations) {
+        this.dependencies = dependencies;
+        this.declarations = declarations;
+    }
+
+    // declares again the globals a top level statement declared when it was recorded, leaving
+    // as many global slots taken as it did
+    void redeclare(Map<String, Variable> declarations, int globalSlots) {
+        symbolStack.get(0).putAll(declarations);
+        slotCounts[GLOBAL] = globalSlots;
+    }
+
+    int getGlobalSlots() {
+        return slotCounts[GLOBAL];
+    }
+
     public void pushScope() {
-        symbolStack.push(new HashMap<>());
+        symbolStack.add(new HashMap<>());
     }
 
     public void popScope() {
-        symbolStack.pop();
+        symbolStack.remove(symbolStack.size() - 1);
+    }
+
+    // a function body starts a new local frame
+    public void pushFrame() {
+        depth = LOCAL;
+        slotCounts[LOCAL] = 0;
+        pushScope();
+    }
+
+    // ends the function body's frame and returns its size
+    public int popFrame() {
+        popScope();
+        depth = GLOBAL;
+        return slotCounts[LOCAL];
+    }
+
+    private Map<String, Object> currentScope() {
+        return symbolStack.get(symbolStack.size() - 1);
+    }
+
+    public static class Variable {
+        private final CatscriptType type;
+        private final int depth;
+        private final int slot;
+
+        Variable(CatscriptType type, int depth, int slot) {
+            this.type = type;
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        public CatscriptType getType() {
+            return type;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
     }
 }
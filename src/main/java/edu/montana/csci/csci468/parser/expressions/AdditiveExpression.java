@@ -5,6 +5,8 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
@@ -17,6 +19,12 @@ public class AdditiveExpression extends Expression {
     private final Token operator;
     private final Expression leftHandSide;
     private final Expression rightHandSide;
+    // settled once the operands' types are known, rather than worked out again on every
+    // getType() and evaluate(), which for a chain like a + b + c + ... is once per level
+    private CatscriptType type;
+    private Operation operation;
+
+    private enum Operation { ADD, SUBTRACT, CONCAT }
 
     public AdditiveExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
@@ -38,7 +46,8 @@ public class AdditiveExpression extends Expression {
     public void validate(SymbolTable symbolTable) {
         leftHandSide.validate(symbolTable);
         rightHandSide.validate(symbolTable);
-        if (getType().equals(CatscriptType.INT)) {
+        resolve();
+        if (type.equals(CatscriptType.INT)) {
             if (!leftHandSide.getType().equals(CatscriptType.INT)) {
                 leftHandSide.addError(ErrorType.INCOMPATIBLE_TYPES);
             }
@@ -49,13 +58,23 @@ public class AdditiveExpression extends Expression {
         // TODO handle strings
     }
 
-    @Override
-    public CatscriptType getType() {
+    // anything added to a string makes a string, whatever the operator
+    private void resolve() {
         if (leftHandSide.getType().equals(CatscriptType.STRING) || rightHandSide.getType().equals(CatscriptType.STRING)) {
-            return CatscriptType.STRING;
+            type = CatscriptType.STRING;
+            operation = Operation.CONCAT;
         } else {
-            return CatscriptType.INT;
+            type = CatscriptType.INT;
+            operation = isAdd() ? Operation.ADD : Operation.SUBTRACT;
+        }
+    }
+
+    @Override
+    public CatscriptType getType() {
+        if (type == null) {
+            resolve();
         }
+        return type;
     }
 
     @Override
@@ -63,26 +82,36 @@ public class AdditiveExpression extends Expression {
         return super.toString() + "[" + operator.getStringValue() + "]";
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.ADDITIVE);
+        out.writeToken(operator);
+        out.writeNode(leftHandSide);
+        out.writeNode(rightHandSide);
+    }
+
+    public static AdditiveExpression read(ProgramReader in) {
+        return new AdditiveExpression(in.readToken(), in.readExpression(), in.readExpression());
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        if (getType() == CatscriptType.STRING){
-            Object lhsValue = leftHandSide.evaluate(runtime);
-            Object rhsValue = rightHandSide.evaluate(runtime);
-            return String.valueOf(lhsValue) + String.valueOf(rhsValue);
+        if (operation == null) {
+            resolve();
         }
-        else {
-            Integer lhsValue = (Integer) leftHandSide.evaluate(runtime);
-            Integer rhsValue = (Integer) rightHandSide.evaluate(runtime);
-            //TODO handle string case
-            if (isAdd()) {
-                return lhsValue + rhsValue;
-            } else {
-                return lhsValue - rhsValue;
-            }
+        Object lhsValue = leftHandSide.evaluate(runtime);
+        Object rhsValue = rightHandSide.evaluate(runtime);
+        switch (operation) {
+            case ADD:
+                return (Integer) lhsValue + (Integer) rhsValue;
+            case SUBTRACT:
+                return (Integer) lhsValue - (Integer) rhsValue;
+            default:
+                return String.valueOf(lhsValue) + rhsValue;
         }
     }
 
@@ -3,6 +3,8 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 
 public class BooleanLiteralExpression extends Expression {
@@ -24,6 +26,16 @@ public class BooleanLiteralExpression extends Expression {
         return CatscriptType.BOOLEAN;
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.BOOLEAN);
+        out.writeBoolean(booleanValue);
+    }
+
+    public static BooleanLiteralExpression read(ProgramReader in) {
+        return new BooleanLiteralExpression(in.readBoolean());
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
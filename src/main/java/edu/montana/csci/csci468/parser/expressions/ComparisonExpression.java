@@ -5,8 +5,11 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.tokenizer.TokenType;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
@@ -17,11 +20,13 @@ public class ComparisonExpression extends Expression {
     private final Token operator;
     private final Expression leftHandSide;
     private final Expression rightHandSide;
+    private final TokenType comparison;
 
     public ComparisonExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
         this.rightHandSide = addChild(rightHandSide);
         this.operator = operator;
+        this.comparison = operator.getType();
     }
 
     public Expression getLeftHandSide() {
@@ -38,16 +43,16 @@ public class ComparisonExpression extends Expression {
     }
 
     public boolean isLessThan() {
-        return operator.getType().equals(LESS);
+        return comparison == LESS;
     }
     public boolean isLessThanOrEqual() {
-        return operator.getType().equals(LESS_EQUAL);
+        return comparison == LESS_EQUAL;
     }
     public boolean isGreaterThanOrEqual() {
-        return operator.getType().equals(GREATER_EQUAL);
+        return comparison == GREATER_EQUAL;
     }
     public boolean isGreater() {
-        return operator.getType().equals(GREATER);
+        return comparison == GREATER;
     }
 
     @Override
@@ -67,28 +72,38 @@ public class ComparisonExpression extends Expression {
         return CatscriptType.BOOLEAN;
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.COMPARISON);
+        out.writeToken(operator);
+        out.writeNode(leftHandSide);
+        out.writeNode(rightHandSide);
+    }
+
+    public static ComparisonExpression read(ProgramReader in) {
+        return new ComparisonExpression(in.readToken(), in.readExpression(), in.readExpression());
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Integer lhsValue = (Integer) leftHandSide.evaluate(runtime);
-        Integer rhsValue = (Integer) rightHandSide.evaluate(runtime);
-
-        if(isGreater()){
-            return lhsValue > rhsValue;
-        }
-        if(isGreaterThanOrEqual()){
-            return lhsValue >= rhsValue;
-        }
-        if(isLessThan()){
-            return lhsValue < rhsValue;
-        }
-        if(isLessThanOrEqual()){
-            return lhsValue <= rhsValue;
+        int lhsValue = (Integer) leftHandSide.evaluate(runtime);
+        int rhsValue = (Integer) rightHandSide.evaluate(runtime);
+        switch (comparison) {
+            case GREATER:
+                return lhsValue > rhsValue;
+            case GREATER_EQUAL:
+                return lhsValue >= rhsValue;
+            case LESS:
+                return lhsValue < rhsValue;
+            case LESS_EQUAL:
+                return lhsValue <= rhsValue;
+            default:
+                return super.evaluate(runtime);
         }
-        return super.evaluate(runtime);
     }
 
     @Override
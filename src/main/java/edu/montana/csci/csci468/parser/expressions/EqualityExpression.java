@@ -3,22 +3,28 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
+import java.util.Objects;
+
 public class EqualityExpression extends Expression {
 
     private final Token operator;
     private final Expression leftHandSide;
     private final Expression rightHandSide;
+    private final boolean equal;
 
     public EqualityExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
         this.rightHandSide = addChild(rightHandSide);
         this.operator = operator;
+        this.equal = operator.getType() == TokenType.EQUAL_EQUAL;
     }
 
     public Expression getLeftHandSide() {
@@ -35,7 +41,7 @@ public class EqualityExpression extends Expression {
     }
 
     public boolean isEqual() {
-        return operator.getType().equals(TokenType.EQUAL_EQUAL);
+        return equal;
     }
 
     @Override
@@ -49,18 +55,26 @@ public class EqualityExpression extends Expression {
         return CatscriptType.BOOLEAN;
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.EQUALITY);
+        out.writeToken(operator);
+        out.writeNode(leftHandSide);
+        out.writeNode(rightHandSide);
+    }
+
+    public static EqualityExpression read(ProgramReader in) {
+        return new EqualityExpression(in.readToken(), in.readExpression(), in.readExpression());
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        if(operator.equals("==")){
-            return getLeftHandSide() == getRightHandSide();
-        }
-        else{
-            return getLeftHandSide() != getRightHandSide();
-        }
+        boolean same = Objects.equals(leftHandSide.evaluate(runtime), rightHandSide.evaluate(runtime));
+        return equal == same;
     }
 
     @Override
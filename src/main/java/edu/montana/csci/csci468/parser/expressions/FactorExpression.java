@@ -5,6 +5,8 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
@@ -15,11 +17,13 @@ public class FactorExpression extends Expression {
     private final Token operator;
     private final Expression leftHandSide;
     private final Expression rightHandSide;
+    private final boolean multiply;
 
     public FactorExpression(Token operator, Expression leftHandSide, Expression rightHandSide) {
         this.leftHandSide = addChild(leftHandSide);
         this.rightHandSide = addChild(rightHandSide);
         this.operator = operator;
+        this.multiply = operator.getType() == TokenType.STAR;
     }
 
     public Expression getLeftHandSide() {
@@ -31,7 +35,7 @@ public class FactorExpression extends Expression {
     }
 
     public boolean isMultiply() {
-        return operator.getType() == TokenType.STAR;
+        return multiply;
     }
 
     @Override
@@ -56,20 +60,27 @@ public class FactorExpression extends Expression {
         return CatscriptType.INT;
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.FACTOR);
+        out.writeToken(operator);
+        out.writeNode(leftHandSide);
+        out.writeNode(rightHandSide);
+    }
+
+    public static FactorExpression read(ProgramReader in) {
+        return new FactorExpression(in.readToken(), in.readExpression(), in.readExpression());
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Integer lhsvalue = (Integer) leftHandSide.evaluate(runtime);
-        Integer rhsvalue = (Integer) rightHandSide.evaluate(runtime);
-        if(isMultiply()){
-            return lhsvalue * rhsvalue;
-        }
-        else{
-            return lhsvalue / rhsvalue;
-        }
+        int lhsvalue = (Integer) leftHandSide.evaluate(runtime);
+        int rhsvalue = (Integer) rightHandSide.evaluate(runtime);
+        return multiply ? lhsvalue * rhsvalue : lhsvalue / rhsvalue;
     }
 
     @Override
@@ -5,12 +5,13 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
 import org.objectweb.asm.Opcodes;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 public class FunctionCallExpression extends Expression {
@@ -19,7 +20,7 @@ public class FunctionCallExpression extends Expression {
     private CatscriptType type;
 
     public FunctionCallExpression(String functionName, List<Expression> arguments) {
-        this.arguments = new LinkedList<>();
+        this.arguments = new ArrayList<>(arguments.size());
         for (Expression value : arguments) {
             this.arguments.add(addChild(value));
         }
@@ -62,6 +63,22 @@ public class FunctionCallExpression extends Expression {
         }
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.FUNCTION_CALL);
+        out.writeString(name);
+        out.writeType(type);
+        out.writeNodes(arguments);
+    }
+
+    public static FunctionCallExpression read(ProgramReader in) {
+        String name = in.readString();
+        CatscriptType type = in.readType();
+        FunctionCallExpression call = new FunctionCallExpression(name, in.readNodes());
+        call.type = type;
+        return call;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
@@ -5,6 +5,8 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import org.objectweb.asm.Opcodes;
 
@@ -13,6 +15,9 @@ import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFo
 public class IdentifierExpression extends Expression {
     private final String name;
     private CatscriptType type;
+    // where verification found the variable, a slot of -1 meaning it is looked up by name
+    private int depth;
+    private int slot = -1;
 
     public IdentifierExpression(String value) {
         this.name = value;
@@ -22,6 +27,14 @@ public class IdentifierExpression extends Expression {
         return name;
     }
 
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
     @Override
     public CatscriptType getType() {
         return type;
@@ -29,21 +42,43 @@ public class IdentifierExpression extends Expression {
 
     @Override
     public void validate(SymbolTable symbolTable) {
-        CatscriptType type = symbolTable.getSymbolType(getName());
-        if (type == null) {
+        SymbolTable.Variable variable = symbolTable.getVariable(getName());
+        if (variable == null || variable.getType() == null) {
             addError(ErrorType.UNKNOWN_NAME);
+            type = CatscriptType.OBJECT;
+            depth = 0;
+            slot = -1;
         } else {
-            this.type = type;
+            this.type = variable.getType();
+            this.depth = variable.getDepth();
+            this.slot = variable.getSlot();
         }
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.IDENTIFIER);
+        out.writeString(name);
+        out.writeType(type);
+        out.writeInt(depth);
+        out.writeSignedInt(slot);
+    }
+
+    public static IdentifierExpression read(ProgramReader in) {
+        IdentifierExpression identifier = new IdentifierExpression(in.readString());
+        identifier.type = in.readType();
+        identifier.depth = in.readInt();
+        identifier.slot = in.readSignedInt();
+        return identifier;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        return runtime.getValue(name);
+        return slot < 0 ? runtime.getValue(name) : runtime.getValue(depth, slot);
     }
 
     @Override
@@ -3,13 +3,22 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 
 public class IntegerLiteralExpression extends Expression {
     private final int integerVal;
+    // boxed once here rather than on every evaluation
+    private final Integer boxedVal;
 
     public IntegerLiteralExpression(String value) {
-        this.integerVal = Integer.parseInt(value);
+        this(Integer.parseInt(value));
+    }
+
+    public IntegerLiteralExpression(int value) {
+        this.integerVal = value;
+        this.boxedVal = value;
     }
 
     public int getValue() {
@@ -29,13 +38,23 @@ public class IntegerLiteralExpression extends Expression {
         return CatscriptType.INT;
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.INTEGER);
+        out.writeSignedInt(integerVal);
+    }
+
+    public static IntegerLiteralExpression read(ProgramReader in) {
+        return new IntegerLiteralExpression(in.readSignedInt());
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        return integerVal;
+        return boxedVal;
     }
 
     @Override
@@ -3,6 +3,8 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import org.objectweb.asm.Opcodes;
 
@@ -17,7 +19,7 @@ public class ListLiteralExpression extends Expression {
     private CatscriptType type;
 
     public ListLiteralExpression(List<Expression> values) {
-        this.values = new LinkedList<>();
+        this.values = new ArrayList<>(values.size());
         for (Expression value : values) {
             this.values.add(addChild(value));
         }
@@ -55,6 +57,20 @@ public class ListLiteralExpression extends Expression {
         return type;
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.LIST);
+        out.writeType(type);
+        out.writeNodes(values);
+    }
+
+    public static ListLiteralExpression read(ProgramReader in) {
+        CatscriptType type = in.readType();
+        ListLiteralExpression list = new ListLiteralExpression(in.readNodes());
+        list.type = type;
+        return list;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
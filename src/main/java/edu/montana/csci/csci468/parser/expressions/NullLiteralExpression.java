@@ -3,6 +3,8 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 
 public class NullLiteralExpression extends Expression {
@@ -15,6 +17,15 @@ public class NullLiteralExpression extends Expression {
     @Override
     public void validate(SymbolTable symbolTable) {}
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.NULL);
+    }
+
+    public static NullLiteralExpression read(ProgramReader in) {
+        return new NullLiteralExpression();
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
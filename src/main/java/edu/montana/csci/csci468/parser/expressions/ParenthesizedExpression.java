@@ -4,6 +4,8 @@ import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.TokenType;
 
@@ -29,6 +31,16 @@ public class ParenthesizedExpression extends Expression {
         return expression.getType();
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.PARENTHESIZED);
+        out.writeNode(expression);
+    }
+
+    public static ParenthesizedExpression read(ProgramReader in) {
+        return new ParenthesizedExpression(in.readExpression());
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
@@ -3,6 +3,8 @@ package edu.montana.csci.csci468.parser.expressions;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 
 public class TypeLiteral extends Expression {
@@ -21,6 +23,18 @@ public class TypeLiteral extends Expression {
     @Override
     public void validate(SymbolTable symbolTable) {}
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.TYPE_LITERAL);
+        out.writeType(type);
+    }
+
+    public static TypeLiteral read(ProgramReader in) {
+        TypeLiteral typeLiteral = new TypeLiteral();
+        typeLiteral.setType(in.readType());
+        return typeLiteral;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
@@ -5,6 +5,8 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
@@ -15,10 +17,12 @@ public class UnaryExpression extends Expression {
 
     private final Token operator;
     private final Expression rightHandSide;
+    private final boolean minus;
 
     public UnaryExpression(Token operator, Expression rightHandSide) {
         this.rightHandSide = addChild(rightHandSide);
         this.operator = operator;
+        this.minus = operator.getType() == TokenType.MINUS;
     }
 
     public Expression getRightHandSide() {
@@ -26,7 +30,7 @@ public class UnaryExpression extends Expression {
     }
 
     public boolean isMinus() {
-        return operator.getType().equals(TokenType.MINUS);
+        return minus;
     }
 
     public boolean isNot() {
@@ -57,22 +61,25 @@ public class UnaryExpression extends Expression {
         }
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.UNARY);
+        out.writeToken(operator);
+        out.writeNode(rightHandSide);
+    }
+
+    public static UnaryExpression read(ProgramReader in) {
+        return new UnaryExpression(in.readToken(), in.readExpression());
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Object rhsValue = getRightHandSide().evaluate(runtime);
-        if (this.isMinus()) {
-            return -1 * (Integer) rhsValue;
-        }
-        if (this.isNot()) {
-            return !(Boolean) rhsValue;
-        } else {
-
-            return null; // TODO handle boolean NOT
-        }
+        Object rhsValue = rightHandSide.evaluate(runtime);
+        return minus ? (Object) (-(Integer) rhsValue) : (Object) !(Boolean) rhsValue;
     }
 
     @Override
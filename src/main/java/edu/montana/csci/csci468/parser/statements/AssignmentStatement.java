@@ -5,12 +5,17 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 
 public class AssignmentStatement extends Statement {
     private Expression expression;
     private String variableName;
+    // where verification found the variable, a slot of -1 meaning it is looked up by name
+    private int depth;
+    private int slot = -1;
 
     public Expression getExpression() {
         return expression;
@@ -20,6 +25,14 @@ public class AssignmentStatement extends Statement {
         this.expression = addChild(expression);
     }
 
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
     public String getVariableName() {
         return variableName;
     }
@@ -31,10 +44,13 @@ public class AssignmentStatement extends Statement {
     @Override
     public void validate(SymbolTable symbolTable) {
         expression.validate(symbolTable);
-        CatscriptType symbolType = symbolTable.getSymbolType(getVariableName());
+        SymbolTable.Variable variable = symbolTable.getVariable(getVariableName());
+        CatscriptType symbolType = variable == null ? null : variable.getType();
         if (symbolType == null) {
             addError(ErrorType.UNKNOWN_NAME);
         } else {
+            depth = variable.getDepth();
+            slot = variable.getSlot();
             // TOOD - verify compatilibity of types
 
             if(!symbolType.isAssignableFrom(expression.getType())) {
@@ -43,12 +59,34 @@ public class AssignmentStatement extends Statement {
         }
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.ASSIGNMENT);
+        out.writeString(variableName);
+        out.writeInt(depth);
+        out.writeSignedInt(slot);
+        out.writeNode(expression);
+    }
+
+    public static AssignmentStatement read(ProgramReader in) {
+        AssignmentStatement assignment = new AssignmentStatement();
+        assignment.setVariableName(in.readString());
+        assignment.depth = in.readInt();
+        assignment.slot = in.readSignedInt();
+        assignment.setExpression(in.readExpression());
+        return assignment;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        runtime.setValue(variableName, expression.evaluate(runtime));
+        if (slot < 0) {
+            runtime.setValue(variableName, expression.evaluate(runtime));
+        } else {
+            runtime.setValue(depth, slot, expression.evaluate(runtime));
+        }
     }
 
     @Override
@@ -3,35 +3,62 @@ package edu.montana.csci.csci468.parser.statements;
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.tokenizer.TokenList;
 import org.objectweb.asm.Opcodes;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
 
 public class CatScriptProgram extends Statement {
 
-    private StringBuffer output = new StringBuffer();
-    private List<Statement> statements = new LinkedList<>();
+    // the runtime of the last run started with execute(), which holds what that run printed
+    private volatile CatscriptRuntime lastRun;
+    private List<Statement> statements = new ArrayList<>();
+    // the tokens and the token each top level statement began at, which lets an edit to the
+    // source keep the statements it did not touch
+    private TokenList tokens;
+    private List<Token> statementStarts = new ArrayList<>();
     private Map<String, FunctionDefinitionStatement> functions = new HashMap<>();
     private Expression expression;
+    // a shared program is never reparsed, and a reparsed one has given its tokens and
+    // statements to the program that replaced it, see CatScriptParser.reparse
+    private boolean shared;
+    private boolean consumed;
 
+    // compiled programs print here, each compiled program being a fresh instance
     public void print(Object v) {
-        output.append(v).append("\n");
+        if (lastRun == null) {
+            lastRun = new CatscriptRuntime();
+        }
+        lastRun.print(v);
     }
 
     public String getOutput(){
-        return output.toString();
+        CatscriptRuntime run = lastRun;
+        return run == null ? "" : run.getOutput();
     }
 
     public void addStatement(Statement child) {
+        addStatement(child, child.getStart());
+    }
+
+    public void addStatement(Statement child, Token start) {
         Statement statement = addChild(child);
         statements.add(statement);
+        statementStarts.add(start);
         if (statement instanceof FunctionDefinitionStatement) {
             FunctionDefinitionStatement function = (FunctionDefinitionStatement) statement;
             functions.put(function.getName(), function);
@@ -50,6 +77,34 @@ public class CatScriptProgram extends Statement {
         return statements;
     }
 
+    public List<Token> getStatementStarts() {
+        return statementStarts;
+    }
+
+    public TokenList getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(TokenList tokens) {
+        this.tokens = tokens;
+    }
+
+    public void markShared() {
+        shared = true;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    public void markConsumed() {
+        consumed = true;
+    }
+
+    public boolean isConsumed() {
+        return consumed;
+    }
+
     public boolean isExpression() {
         return expression != null;
     }
@@ -62,6 +117,8 @@ public class CatScriptProgram extends Statement {
     public void validate(SymbolTable symbolTable) {
         if (expression != null) {
             expression.validate(symbolTable);
+        } else if (symbolTable.isParallel()) {
+            validateInParallel(symbolTable);
         } else {
             for (Statement statement : statements) {
                 statement.validate(symbolTable);
@@ -69,8 +126,64 @@ public class CatScriptProgram extends Statement {
         }
     }
 
+    // The top level statements are checked in order first, each function being given a table
+    // that sees the globals declared before it, and then the function bodies are checked at
+    // once on the common fork-join pool.  A body only touches its own subtree, and errors are
+    // gathered from the tree afterwards, so they come out in source order either way
+    private void validateInParallel(SymbolTable symbolTable) {
+        List<ForkJoinTask<?>> bodies = new ArrayList<>();
+        for (Statement statement : statements) {
+            if (statement instanceof FunctionDefinitionStatement) {
+                SymbolTable functionTable = symbolTable.forFunction();
+                bodies.add(ForkJoinTask.adapt(() -> statement.validate(functionTable)));
+            } else {
+                statement.validate(symbolTable);
+            }
+        }
+        ForkJoinTask.invokeAll(bodies);
+    }
+
+    // runs the program in a runtime of its own, whose output getOutput returns afterwards.  A
+    // shared program is run with execute(CatscriptRuntime) instead
     public void execute() {
-        execute(new CatscriptRuntime());
+        if (shared) {
+            throw new IllegalStateException("A shared program is run with a CatscriptRuntime of its own");
+        }
+        CatscriptRuntime runtime = new CatscriptRuntime();
+        lastRun = runtime;
+        execute(runtime);
+    }
+
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.PROGRAM);
+        out.writeBoolean(isExpression());
+        if (isExpression()) {
+            out.writeNode(expression);
+        } else {
+            out.writeNodes(statements);
+        }
+    }
+
+    public static CatScriptProgram read(ProgramReader in) {
+        CatScriptProgram program = new CatScriptProgram();
+        if (in.readBoolean()) {
+            program.setExpression(in.readExpression());
+        } else {
+            for (Statement statement : in.<Statement>readNodes()) {
+                program.addStatement(statement);
+            }
+        }
+        return program;
+    }
+
+    // a verified program in the form ProgramWriter describes, to be loaded with readFrom
+    public void writeTo(DataOutput out) throws IOException {
+        new ProgramWriter().write(this, out);
+    }
+
+    public static CatScriptProgram readFrom(ByteBuffer buffer) {
+        return (CatScriptProgram) new ProgramReader(buffer).readNode();
     }
 
     //==============================================================
@@ -79,7 +192,7 @@ public class CatScriptProgram extends Statement {
     @Override
     public void execute(CatscriptRuntime runtime) {
         if (expression != null) {
-            print(expression.evaluate(runtime));
+            runtime.print(expression.evaluate(runtime));
         } else {
             for (Statement statement : statements) {
                 statement.execute(runtime);
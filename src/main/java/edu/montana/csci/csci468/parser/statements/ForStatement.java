@@ -5,13 +5,15 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
@@ -20,6 +22,9 @@ public class ForStatement extends Statement {
     private Expression expression;
     private String variableName;
     private List<Statement> body;
+    // the loop variable's frame and slot, see SymbolTable, -1 until it is verified
+    private int depth;
+    private int slot = -1;
 
     public void setExpression(Expression expression) {
         this.expression = addChild(expression);
@@ -30,7 +35,7 @@ public class ForStatement extends Statement {
     }
 
     public void setBody(List<Statement> statements) {
-        this.body = new LinkedList<>();
+        this.body = new ArrayList<>(statements.size());
         for (Statement statement : statements) {
             this.body.add(addChild(statement));
         }
@@ -48,6 +53,14 @@ public class ForStatement extends Statement {
         return body;
     }
 
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
     @Override
     public void validate(SymbolTable symbolTable) {
         symbolTable.pushScope();
@@ -56,12 +69,15 @@ public class ForStatement extends Statement {
         } else {
             expression.validate(symbolTable);
             CatscriptType type = expression.getType();
+            SymbolTable.Variable variable;
             if (type instanceof CatscriptType.ListType) {
-                symbolTable.registerSymbol(variableName, getComponentType());
+                variable = symbolTable.registerSymbol(variableName, getComponentType());
             } else {
                 addError(ErrorType.INCOMPATIBLE_TYPES, getStart());
-                symbolTable.registerSymbol(variableName, CatscriptType.OBJECT);
+                variable = symbolTable.registerSymbol(variableName, CatscriptType.OBJECT);
             }
+            depth = variable.getDepth();
+            slot = variable.getSlot();
         }
         for (Statement statement : body) {
             statement.validate(symbolTable);
@@ -73,6 +89,26 @@ public class ForStatement extends Statement {
         return ((CatscriptType.ListType) expression.getType()).getComponentType();
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.FOR);
+        out.writeString(variableName);
+        out.writeInt(depth);
+        out.writeSignedInt(slot);
+        out.writeNode(expression);
+        out.writeNodes(body);
+    }
+
+    public static ForStatement read(ProgramReader in) {
+        ForStatement forStatement = new ForStatement();
+        forStatement.setVariableName(in.readString());
+        forStatement.depth = in.readInt();
+        forStatement.slot = in.readSignedInt();
+        forStatement.setExpression(in.readExpression());
+        forStatement.setBody(in.readNodes());
+        return forStatement;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
@@ -80,7 +116,11 @@ public class ForStatement extends Statement {
     public void execute(CatscriptRuntime runtime) {
         List values = (List) expression.evaluate(runtime);
         for (Object value : values){
-            runtime.setValue(variableName, value);
+            if (slot < 0) {
+                runtime.setValue(variableName, value);
+            } else {
+                runtime.setValue(depth, slot, value);
+            }
             for (Statement statement : body){
                 statement.execute(runtime);
             }
@@ -2,6 +2,8 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 import edu.montana.csci.csci468.parser.expressions.FunctionCallExpression;
@@ -27,6 +29,16 @@ public class FunctionCallStatement extends Statement {
         return expression.getName();
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.FUNCTION_CALL_STATEMENT);
+        out.writeNode(expression);
+    }
+
+    public static FunctionCallStatement read(ProgramReader in) {
+        return new FunctionCallStatement((FunctionCallExpression) in.readNode());
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
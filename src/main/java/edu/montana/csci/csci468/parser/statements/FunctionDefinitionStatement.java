@@ -6,12 +6,13 @@ import edu.montana.csci.csci468.eval.ReturnException;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.TypeLiteral;
 import org.objectweb.asm.Opcodes;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
@@ -21,7 +22,10 @@ public class FunctionDefinitionStatement extends Statement {
     private CatscriptType type;
     private List<CatscriptType> argumentTypes = new ArrayList<>();
     private List<String> argumentNames = new ArrayList<>();
-    private LinkedList<Statement> body;
+    private List<Statement> body;
+    // the size of a call's frame, its parameters taking the first slots, or -1 while the
+    // function is unverified and its variables are looked up by name
+    private int frameSize = -1;
 
     public void setName(String name) {
         this.name = name;
@@ -67,7 +71,7 @@ public class FunctionDefinitionStatement extends Statement {
     }
 
     public void setBody(List<Statement> statements) {
-        this.body = new LinkedList<>();
+        this.body = new ArrayList<>(statements.size());
         for (Statement statement : statements) {
             this.body.add(addChild(statement));
         }
@@ -79,10 +83,12 @@ public class FunctionDefinitionStatement extends Statement {
 
     @Override
     public void validate(SymbolTable symbolTable) {
-        symbolTable.pushScope();
+        symbolTable.pushFrame();
+        boolean parametersInPlace = true;
         for (int i = 0; i < getParameterCount(); i++) {
             if (symbolTable.hasSymbol(getParameterName(i))) {
                 addError(ErrorType.DUPLICATE_NAME);
+                parametersInPlace = false;
             } else {
                 symbolTable.registerSymbol(getParameterName(i), getParameterType(i));
             }
@@ -90,7 +96,8 @@ public class FunctionDefinitionStatement extends Statement {
         for (Statement statement : body) {
             statement.validate(symbolTable);
         }
-        symbolTable.popScope();
+        int slots = symbolTable.popFrame();
+        frameSize = parametersInPlace ? slots : -1;
         if (!type.equals(CatscriptType.VOID)) {
             if (!validateReturnCoverage(body)) {
                 addError(ErrorType.MISSING_RETURN_STATEMENT);
@@ -103,7 +110,33 @@ public class FunctionDefinitionStatement extends Statement {
         return true;
     }
 
+    public int getFrameSize() {
+        return frameSize;
+    }
+
     public Object invoke(CatscriptRuntime runtime, List<Object> args) {
+        if (frameSize < 0) {
+            return invokeByName(runtime, args);
+        }
+        Object[] caller = runtime.enterFunction(frameSize);
+        int parameterCount = getParameterCount();
+        for (int i = 0; i < parameterCount; i++) {
+            runtime.setValue(SymbolTable.LOCAL, i, args.get(i));
+        }
+        Object returnVal = null;
+        try {
+            for (Statement statement : body) {
+                statement.execute(runtime);
+            }
+        } catch (ReturnException re) {
+            returnVal = re.getValue();
+        } finally {
+            runtime.exitFunction(caller);
+        }
+        return returnVal;
+    }
+
+    private Object invokeByName(CatscriptRuntime runtime, List<Object> args) {
         runtime.pushScope();
         int parameterCount = getParameterCount();
         for (int i = 0; i < parameterCount; i++) {
@@ -142,6 +175,46 @@ public class FunctionDefinitionStatement extends Statement {
         return sb.toString();
     }
 
+    // parameter types are written as they were resolved, each read back as a type literal
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.FUNCTION_DEFINITION);
+        out.writeString(name);
+        out.writeType(type);
+        out.writeInt(getParameterCount());
+        for (int i = 0; i < getParameterCount(); i++) {
+            out.writeString(argumentNames.get(i));
+            out.writeType(argumentTypes.get(i));
+        }
+        out.writeSignedInt(frameSize);
+        out.writeNodes(body);
+    }
+
+    public static FunctionDefinitionStatement read(ProgramReader in) {
+        FunctionDefinitionStatement function = new FunctionDefinitionStatement();
+        function.setName(in.readString());
+        function.setType(typeLiteral(in.readType()));
+        int parameterCount = in.readInt();
+        for (int i = 0; i < parameterCount; i++) {
+            function.addParameter(in.readString(), typeLiteral(in.readType()));
+        }
+        function.frameSize = in.readSignedInt();
+        FunctionDefinitionStatement enclosingFunction = in.getCurrentFunction();
+        in.setCurrentFunction(function);
+        function.setBody(in.readNodes());
+        in.setCurrentFunction(enclosingFunction);
+        return function;
+    }
+
+    private static TypeLiteral typeLiteral(CatscriptType type) {
+        if (type.equals(CatscriptType.VOID)) {
+            return null;
+        }
+        TypeLiteral typeLiteral = new TypeLiteral();
+        typeLiteral.setType(type);
+        return typeLiteral;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
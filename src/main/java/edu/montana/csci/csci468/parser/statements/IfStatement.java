@@ -6,6 +6,8 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.BooleanLiteralExpression;
 import edu.montana.csci.csci468.parser.expressions.Expression;
@@ -13,8 +15,8 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Label;
 
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 public class IfStatement extends Statement {
@@ -35,7 +37,7 @@ public class IfStatement extends Statement {
     }
 
     public void setTrueStatements(List<Statement> statements) {
-        this.trueStatements = new LinkedList<>();
+        this.trueStatements = new ArrayList<>(statements.size());
         for (Statement statement : statements) {
             this.trueStatements.add(addChild(statement));
         }
@@ -46,7 +48,7 @@ public class IfStatement extends Statement {
     }
 
     public void setElseStatements(List<Statement> statements) {
-        this.elseStatements = new LinkedList<>();
+        this.elseStatements = new ArrayList<>(statements.size());
         for (Statement statement : statements) {
             this.elseStatements.add(addChild(statement));
         }
@@ -70,6 +72,25 @@ public class IfStatement extends Statement {
         symbolTable.popScope();
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.IF);
+        out.writeNode(expression);
+        out.writeNodes(trueStatements);
+        out.writeNodes(elseStatements);
+    }
+
+    public static IfStatement read(ProgramReader in) {
+        IfStatement ifStatement = new IfStatement();
+        ifStatement.setExpression(in.readExpression());
+        ifStatement.setTrueStatements(in.readNodes());
+        List<Statement> elseStatements = in.readNodes();
+        if (!elseStatements.isEmpty()) {
+            ifStatement.setElseStatements(elseStatements);
+        }
+        return ifStatement;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
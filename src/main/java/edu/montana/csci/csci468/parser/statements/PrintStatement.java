@@ -2,6 +2,8 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 import org.objectweb.asm.Opcodes;
@@ -25,12 +27,24 @@ public class PrintStatement extends Statement {
         expression.validate(symbolTable);
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.PRINT);
+        out.writeNode(expression);
+    }
+
+    public static PrintStatement read(ProgramReader in) {
+        PrintStatement print = new PrintStatement();
+        print.setExpression(in.readExpression());
+        return print;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        getProgram().print(expression.evaluate(runtime));
+        runtime.print(expression.evaluate(runtime));
     }
 
     @Override
@@ -6,6 +6,8 @@ import edu.montana.csci.csci468.eval.ReturnException;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 
@@ -39,6 +41,24 @@ public class ReturnStatement extends Statement {
         }
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.RETURN);
+        out.writeBoolean(expression != null);
+        if (expression != null) {
+            out.writeNode(expression);
+        }
+    }
+
+    public static ReturnStatement read(ProgramReader in) {
+        ReturnStatement returnStatement = new ReturnStatement();
+        returnStatement.setFunctionDefinition(in.getCurrentFunction());
+        if (in.readBoolean()) {
+            returnStatement.setExpression(in.readExpression());
+        }
+        return returnStatement;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
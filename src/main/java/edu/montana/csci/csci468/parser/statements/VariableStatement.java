@@ -5,6 +5,8 @@ import edu.montana.csci.csci468.eval.CatscriptRuntime;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ProgramReader;
+import edu.montana.csci.csci468.parser.ProgramWriter;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 import org.objectweb.asm.Opcodes;
@@ -16,6 +18,9 @@ public class VariableStatement extends Statement {
     private String variableName;
     private CatscriptType explicitType;
     private CatscriptType type;
+    // the variable's frame and slot, see SymbolTable, -1 until it is verified
+    private int depth;
+    private int slot = -1;
 
     public Expression getExpression() {
         return expression;
@@ -41,6 +46,14 @@ public class VariableStatement extends Statement {
         return explicitType;
     }
 
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
     public boolean isGlobal() {
         return getParent() instanceof CatScriptProgram;
     }
@@ -62,7 +75,9 @@ public class VariableStatement extends Statement {
             else {
                 type = expression.getType();
             }
-            symbolTable.registerSymbol(variableName, type);
+            SymbolTable.Variable variable = symbolTable.registerSymbol(variableName, type);
+            depth = variable.getDepth();
+            slot = variable.getSlot();
         }
     }
 
@@ -70,12 +85,38 @@ public class VariableStatement extends Statement {
         return type;
     }
 
+    @Override
+    public void write(ProgramWriter out) {
+        out.writeTag(ProgramWriter.VARIABLE);
+        out.writeString(variableName);
+        out.writeType(explicitType);
+        out.writeType(type);
+        out.writeInt(depth);
+        out.writeSignedInt(slot);
+        out.writeNode(expression);
+    }
+
+    public static VariableStatement read(ProgramReader in) {
+        VariableStatement variable = new VariableStatement();
+        variable.setVariableName(in.readString());
+        variable.setExplicitType(in.readType());
+        variable.type = in.readType();
+        variable.depth = in.readInt();
+        variable.slot = in.readSignedInt();
+        variable.setExpression(in.readExpression());
+        return variable;
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        runtime.setValue(variableName,expression.evaluate(runtime));
+        if (slot < 0) {
+            runtime.setValue(variableName, expression.evaluate(runtime));
+        } else {
+            runtime.setValue(depth, slot, expression.evaluate(runtime));
+        }
     }
 
     @Override
@@ -0,0 +1,55 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Scans ASCII/UTF-8 bytes in place; positions are byte offsets from the buffer's position and
+// text is only decoded when a token value or line is asked for.  Each byte is handed to
+// the tokenizer as a char, so ASCII needs no decoding at all and everything else only
+// matters inside string literals
+class ByteBufferSource extends CharSource {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferSource(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    boolean isEnd(int position) {
+        return position >= buffer.limit();
+    }
+
+    @Override
+    char charAt(int position) {
+        return (char) (buffer.get(position) & 0xFF);
+    }
+
+    @Override
+    boolean startsCodePoint(char c) {
+        return (c & 0xC0) != 0x80;
+    }
+
+    @Override
+    String substring(int start, int end) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(start).limit(end);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    // bytes only stand for chars one for one while they are ASCII, anything else is decoded
+    @Override
+    CharSequence slice(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                return substring(start, end);
+            }
+        }
+        return super.slice(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, buffer.limit());
+    }
+}
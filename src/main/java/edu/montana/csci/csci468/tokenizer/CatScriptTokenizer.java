@@ -1,187 +1,533 @@
 package edu.montana.csci.csci468.tokenizer;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
 public class CatScriptTokenizer {
 
     TokenList tokenList;
-    String src;
+    CharSource src;
     int position = 0;
     int line = 1;
     int lineOffset = 0;
+    // lineStarts[n] is the offset the (n + 1)th line starts at, filled in as lines are scanned.
+    // After an edit the last lineTail of them sit at the end of the array and count back from
+    // the end of the source, which is length long, see relex.  A streaming tokenizer drops the
+    // first lineBase of them as the source is released, so it only holds the live window's
+    int[] lineStarts = new int[64];
+    int lineCount = 1;
+    int lineTail;
+    int lineBase;
+    int length;
+    private boolean finished = false;
+    // a chunk of a parallel tokenization stops here, without adding an EOF token
+    private int limit = Integer.MAX_VALUE;
+    private SymbolPool symbols = new SymbolPool();
+    // where the token being scanned began
+    private int tokenStart;
+    private int tokenLine;
+    private int tokenOffset;
+
+    // character classes for 7-bit input, everything else is OTHER
+    private static final byte OTHER = 0, BLANK = 1, NEWLINE = 2, DIGIT = 3, ALPHA = 4,
+            QUOTE = 5, PUNCTUATION = 6, COMPARISON = 7, SLASH_START = 8;
+    private static final byte[] CLASSES = new byte[128];
+    // the token a character starts on its own, and for comparisons the token when '=' follows
+    private static final TokenType[] SINGLE = new TokenType[128];
+    private static final TokenType[] WITH_EQUAL = new TokenType[128];
+    static {
+        CLASSES[' '] = CLASSES['\t'] = CLASSES['\r'] = BLANK;
+        CLASSES['\n'] = NEWLINE;
+        for (char c = '0'; c <= '9'; c++) {
+            CLASSES[c] = DIGIT;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] = CLASSES[Character.toUpperCase(c)] = ALPHA;
+        }
+        CLASSES['_'] = ALPHA;
+        CLASSES['"'] = QUOTE;
+        CLASSES['/'] = SLASH_START;
+        char[] punctuation = {'(', ')', '{', '}', '[', ']', ':', ',', '.', '-', '+', '*'};
+        TokenType[] punctuationTypes = {LEFT_PAREN, RIGHT_PAREN, LEFT_BRACE, RIGHT_BRACE, LEFT_BRACKET,
+                RIGHT_BRACKET, COLON, COMMA, DOT, MINUS, PLUS, STAR};
+        for (int i = 0; i < punctuation.length; i++) {
+            CLASSES[punctuation[i]] = PUNCTUATION;
+            SINGLE[punctuation[i]] = punctuationTypes[i];
+        }
+        CLASSES['='] = CLASSES['!'] = CLASSES['>'] = CLASSES['<'] = COMPARISON;
+        SINGLE['='] = EQUAL;
+        SINGLE['>'] = GREATER;
+        SINGLE['<'] = LESS;
+        WITH_EQUAL['='] = EQUAL_EQUAL;
+        WITH_EQUAL['!'] = BANG_EQUAL;
+        WITH_EQUAL['>'] = GREATER_EQUAL;
+        WITH_EQUAL['<'] = LESS_EQUAL;
+    }
+
+    // keywords hash perfectly on first character, last character and length, and a match is
+    // confirmed against the source so recognising one never allocates
+    private static final int KEYWORD_SLOTS = 32;
+    private static final String[] KEYWORD_TEXT = new String[KEYWORD_SLOTS];
+    private static final TokenType[] KEYWORD_TYPES = new TokenType[KEYWORD_SLOTS];
+    static {
+        KEYWORDS.forEach((text, type) -> {
+            int slot = keywordSlot(text.charAt(0), text.charAt(text.length() - 1), text.length());
+            if (KEYWORD_TEXT[slot] != null) {
+                throw new IllegalStateException("Keywords " + text + " and " + KEYWORD_TEXT[slot] + " share a slot");
+            }
+            KEYWORD_TEXT[slot] = text;
+            KEYWORD_TYPES[slot] = type;
+        });
+    }
+
+    private static final String[] FIXED_TEXT = new String[TokenType.values().length];
+    static {
+        KEYWORDS.forEach((text, type) -> FIXED_TEXT[type.ordinal()] = text);
+        String[] syntax = {"(", ")", "{", "}", "[", "]", ":", ",", ".", "-", "+", "/", "*",
+                "!=", "=", "==", ">", ">=", "<", "<="};
+        TokenType[] syntaxTypes = {LEFT_PAREN, RIGHT_PAREN, LEFT_BRACE, RIGHT_BRACE, LEFT_BRACKET, RIGHT_BRACKET,
+                COLON, COMMA, DOT, MINUS, PLUS, SLASH, STAR, BANG_EQUAL, EQUAL, EQUAL_EQUAL,
+                GREATER, GREATER_EQUAL, LESS, LESS_EQUAL};
+        for (int i = 0; i < syntax.length; i++) {
+            FIXED_TEXT[syntaxTypes[i].ordinal()] = syntax[i];
+        }
+    }
 
     public CatScriptTokenizer(String source) {
-        src = source;
+        this(source, false);
+    }
+
+    // compact token lists store tokens in parallel arrays and only build values when asked
+    public CatScriptTokenizer(String source, boolean compactTokens) {
+        src = new SequenceSource(source);
+        tokenList = compactTokens ? new CompactTokenList(this) : new TokenList(this);
+        tokenize();
+    }
+
+    // tokens are scanned on demand as the returned token list is consumed
+    public CatScriptTokenizer(Readable source) {
+        src = new ReaderSource(source);
+        tokenList = new StreamingTokenList(this);
+    }
+
+    // scans UTF-8 without decoding it up front, see ByteBufferSource
+    public CatScriptTokenizer(byte[] source) {
+        this(ByteBuffer.wrap(source));
+    }
+
+    // token offsets are byte offsets into the buffer, columns count characters
+    public CatScriptTokenizer(ByteBuffer source) {
+        src = new ByteBufferSource(source);
         tokenList = new TokenList(this);
         tokenize();
     }
 
-    private void tokenize() {
-        consumeWhitespace();
-        while (!tokenizationEnd()) {
-            scanToken();
-            consumeWhitespace();
-        }
-        tokenList.addToken(EOF, "<EOF>", position, position, line, lineOffset);
+    private CatScriptTokenizer(CharSource source, SymbolPool symbols) {
+        this.src = source;
+        this.symbols = symbols;
+        this.tokenList = new TokenList(this);
     }
 
-    private void scanToken() {
-        if (scanNumber()) {
-            return;
-        }
-        if (scanString()) {
-            return;
+    static final int PARALLEL_CHUNK_SIZE = 256 * 1024;
+
+    // Tokenizes a large source on the fork-join pool.  A quick pre-scan finds newlines that are
+    // outside strings and comments, where the tokenizer is always between tokens, and the chunks
+    // between them are lexed independently over the shared source.  The result is the same as
+    // tokenizing sequentially, except that identifiers are only interned per chunk
+    public static CatScriptTokenizer parallel(String source) {
+        return parallel(source, PARALLEL_CHUNK_SIZE);
+    }
+
+    static CatScriptTokenizer parallel(String source, int chunkSize) {
+        CharSource src = new SequenceSource(source);
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer(src, new SymbolPool());
+        List<Integer> chunkStarts = new ArrayList<>();
+        List<Integer> chunkLines = new ArrayList<>();
+        findChunks(source, chunkSize, chunkStarts, chunkLines);
+
+        List<CatScriptTokenizer> chunks = IntStream.range(0, chunkStarts.size()).parallel().mapToObj(i -> {
+            CatScriptTokenizer chunk = new CatScriptTokenizer(src, new SymbolPool());
+            chunk.position = chunkStarts.get(i);
+            chunk.line = chunkLines.get(i);
+            chunk.lineStarts[0] = chunk.position;
+            if (i + 1 < chunkStarts.size()) {
+                chunk.limit = chunkStarts.get(i + 1);
+            }
+            chunk.tokenize();
+            for (Token token : chunk.tokenList.tokens) {
+                token.tokenizer = tokenizer;
+            }
+            return chunk;
+        }).collect(Collectors.toList());
+
+        int tokenCount = 0;
+        int lineCount = 1;
+        for (CatScriptTokenizer chunk : chunks) {
+            tokenCount += chunk.tokenList.tokens.size();
+            lineCount += chunk.lineCount - 1;
         }
-        if (scanIdentifier()) {
-            return;
+        List<Token> tokens = new ArrayList<>(tokenCount);
+        tokenizer.lineStarts = new int[lineCount];
+        tokenizer.lineCount = 1;
+        for (CatScriptTokenizer chunk : chunks) {
+            tokens.addAll(chunk.tokenList.tokens);
+            // each chunk's first line start was already added by the chunk before it
+            System.arraycopy(chunk.lineStarts, 1, tokenizer.lineStarts, tokenizer.lineCount, chunk.lineCount - 1);
+            tokenizer.lineCount += chunk.lineCount - 1;
         }
-        scanSyntax();
+        CatScriptTokenizer last = chunks.get(chunks.size() - 1);
+        tokenizer.tokenList.tokens = tokens;
+        tokenizer.position = last.position;
+        tokenizer.line = last.line;
+        tokenizer.lineOffset = last.lineOffset;
+        tokenizer.finished = true;
+        return tokenizer;
+    }
+
+    // Tokenizes on a thread of its own while the returned tokenizer's token list is read, see
+    // PipelinedTokenList.  Line lookups are only safe once the list has been read to its end
+    public static CatScriptTokenizer pipelined(String source) {
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer(new SequenceSource(source), new SymbolPool());
+        PipelinedTokenList tokens = new PipelinedTokenList(tokenizer);
+        tokenizer.tokenList = tokens;
+        tokens.start();
+        return tokenizer;
     }
 
-    private boolean scanString() {
-        // TODO implement string scanning here!
-        if (matchAndConsume('"')) {
-            int start = position;
-            while (peek() != '"' && !tokenizationEnd()) {
-                if (peek() == '\n') line++;
-                if (peek() == '\\' && position + 1 < src.length()) {
-                    position++;
+    // mirrors how the tokenizer treats strings and comments, and starts a chunk at the first
+    // newline outside of them once chunkSize characters have gone by
+    private static void findChunks(String source, int chunkSize, List<Integer> chunkStarts, List<Integer> chunkLines) {
+        chunkStarts.add(0);
+        chunkLines.add(1);
+        int length = source.length();
+        int line = 1;
+        int next = chunkSize;
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\n') {
+                line++;
+                i++;
+                if (i >= next && i < length) {
+                    chunkStarts.add(i);
+                    chunkLines.add(line);
+                    next = i + chunkSize;
                 }
-                takeChar();
-            }
-            if (tokenizationEnd()) {
-                tokenList.addToken(ERROR, "Error, unterminated string", start, position, line, lineOffset);
-                return true;
+            } else if (c == '"') {
+                i++;
+                while (i < length && source.charAt(i) != '"') {
+                    if (source.charAt(i) == '\\' && i + 1 < length) {
+                        i++;
+                    }
+                    if (source.charAt(i) == '\n') {
+                        line++;
+                    }
+                    i++;
+                }
+                i++;
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                i += 2;
+                while (i < length && source.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+                i += 2;
+                while (i < length && !(source.charAt(i) == '*' && i + 1 < length && source.charAt(i + 1) == '/')) {
+                    if (source.charAt(i) == '\n') {
+                        line++;
+                    }
+                    i++;
+                }
+                i += 2;
+            } else {
+                i++;
             }
-            takeChar();
-            String value = src.substring(start, position - 1);
-            tokenList.addToken(STRING, value, start, position, line, lineOffset);
-            return true;
         }
-        return false;
     }
 
-    private boolean scanIdentifier() {
-        if (isAlpha(peek())) {
-            int start = position;
-            while (isAlphaNumeric(peek())) {
-                takeChar();
+    // Applies an edit to the source behind a token list and rescans from the last token before
+    // it until the new tokens fall in step with the old ones.  The list and its tokens are updated
+    // in place and returned, see TokenGapList, and other kinds of list are tokenized again in full
+    public static TokenList relex(TokenList previous, int offset, int removedLength, String insertedText) {
+        CatScriptTokenizer tokenizer = previous.tokenizer;
+        if (!(tokenizer.src instanceof GapBufferSource)) {
+            tokenizer.length = tokenizer.position;
+        }
+        if (offset < 0 || removedLength < 0 || offset + removedLength > tokenizer.length) {
+            throw new IllegalArgumentException("Edit at " + offset + " removing " + removedLength +
+                    " characters is outside of the source");
+        }
+        if (previous.getClass() != TokenList.class ||
+                !(tokenizer.src instanceof SequenceSource || tokenizer.src instanceof GapBufferSource)) {
+            String source = tokenizer.src.toString();
+            return new CatScriptTokenizer(source.substring(0, offset) + insertedText +
+                    source.substring(offset + removedLength)).getTokens();
+        }
+        if (!(tokenizer.src instanceof GapBufferSource)) {
+            tokenizer.src = new GapBufferSource(tokenizer.src.toString());
+            previous.tokens = new TokenGapList(tokenizer, previous.tokens);
+        }
+        GapBufferSource source = (GapBufferSource) tokenizer.src;
+        TokenGapList tokens = (TokenGapList) previous.tokens;
+
+        int restart = lastTokenEndingBefore(tokens, offset);
+        while (restart >= 0 && tokens.get(restart).getType() == ERROR) {
+            restart--;
+        }
+        if (restart >= 0) {
+            Token token = tokens.get(restart);
+            tokenizer.position = scanStart(token);
+            tokenizer.line = token.getLine();
+            tokenizer.lineOffset = token.getLineOffset();
+        } else {
+            restart = 0;
+            tokenizer.position = 0;
+            tokenizer.line = 1;
+            tokenizer.lineOffset = 0;
+        }
+        // everything from the restart on counts back from the end, so the edit leaves it be
+        int restartLine = tokenizer.line;
+        tokens.moveGap(restart);
+        tokenizer.moveLineGap(restartLine);
+        int oldLineCount = tokenizer.lineCount;
+        source.replace(offset, removedLength, insertedText);
+        tokenizer.length += insertedText.length() - removedLength;
+
+        TokenList scanned = new TokenList(tokenizer);
+        tokenizer.tokenList = scanned;
+        tokenizer.finished = false;
+        int editEnd = offset + insertedText.length();
+        int next = restart;
+        int scannedCount = 0;
+        boolean resynced = false;
+        while (tokenizer.scanNext()) {
+            // comments are scanned without producing a token
+            if (scanned.tokens.size() == scannedCount) {
+                continue;
+            }
+            scannedCount = scanned.tokens.size();
+            Token token = scanned.tokens.get(scannedCount - 1);
+            int start = scanStart(token);
+            // error tokens are never used to resync, an unterminated string's error starts past its quote
+            if (start < editEnd || token.getType() == ERROR) {
+                continue;
+            }
+            while (next < tokens.size() && scanStart(tokens.get(next)) < start) {
+                next++;
             }
-            String value = src.substring(start, position);
-            if (KEYWORDS.containsKey(value)) {
-                tokenList.addToken(KEYWORDS.get(value), value, start, position, line, lineOffset);
+            if (next < tokens.size() && scanStart(tokens.get(next)) == start && tokens.get(next).getType() != ERROR) {
+                // back in step with the old tokens, which from here on have only moved
+                Token old = tokens.get(next);
+                scanned.tokens.remove(scannedCount - 1);
+                tokens.replaceAfterGap(next - restart, scanned.tokens);
+                tokenizer.lineTail -= old.line + oldLineCount - restartLine;
+                tokenizer.lineCount = token.getLine() + tokenizer.lineTail;
+                int columnDelta = token.getLineOffset() - old.getLineOffset();
+                int oldLine = old.line;
+                for (int i = restart + scanned.tokens.size(); i < tokens.size() && tokens.get(i).line == oldLine; i++) {
+                    tokens.get(i).lineOffset += columnDelta;
+                }
+                tokenizer.position = tokenizer.length;
+                tokenizer.finished = true;
+                resynced = true;
+                break;
+            }
+        }
+        if (!resynced) {
+            tokens.replaceAfterGap(tokens.size() - restart, scanned.tokens);
+            tokenizer.lineCount -= tokenizer.lineTail;
+            tokenizer.lineTail = 0;
+        }
+        tokenizer.tokenList = previous;
+        previous.reset();
+        return previous;
+    }
+
+    private static int lastTokenEndingBefore(List<Token> tokens, int offset) {
+        int low = 0;
+        int high = tokens.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (tokens.get(middle).getEnd() < offset) {
+                low = middle + 1;
             } else {
-                tokenList.addToken(IDENTIFIER, value, start, position, line, lineOffset);
+                high = middle - 1;
             }
-            return true;
-        } else {
-            return false;
         }
+        return high;
     }
 
-    private boolean scanNumber() {
-        if (isDigit(peek())) {
-            int start = position;
-            while (isDigit(peek())) {
-                takeChar();
+    // where scanning has to begin to produce the token again, strings start after their quote
+    private static int scanStart(Token token) {
+        return token.getType() == STRING ? token.getStart() - 1 : token.getStart();
+    }
+
+    public static CatScriptTokenizer mapFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new CatScriptTokenizer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private void tokenize() {
+        while (scanNext()) {
+        }
+    }
+
+    boolean scanNext() {
+        if (finished) {
+            return false;
+        }
+        consumeWhitespace();
+        if (tokenizationEnd()) {
+            if (position < limit) {
+                tokenList.addToken(EOF, "<EOF>", position, position, line, lineOffset);
             }
-            tokenList.addToken(INTEGER, src.substring(start, position), start, position, line, lineOffset);
-            return true;
+            finished = true;
         } else {
-            return false;
+            scanToken();
         }
+        return true;
     }
 
-    private void scanSyntax() {
-        // TODO - implement rest of syntax scanning
-        //      - implement comments
-        int start = position;
-        if (matchAndConsume('+')) {
-            tokenList.addToken(PLUS, "+", start, position, line, lineOffset);
-        } else if (matchAndConsume('-')) {
-            tokenList.addToken(MINUS, "-", start, position, line, lineOffset);
-        } else if (matchAndConsume('/')) {
-            if (matchAndConsume('/')) {
-                while (peek() != '\n' && !tokenizationEnd()) {
+    private void scanToken() {
+        tokenStart = position;
+        tokenLine = line;
+        tokenOffset = lineOffset;
+        char c = takeChar();
+        switch (classOf(c)) {
+            case DIGIT:
+                scanNumber(c);
+                break;
+            case ALPHA:
+                while (isAlphaNumeric(peek())) {
                     takeChar();
                 }
-            } else if (matchAndConsume('*')) {
-                while ((current() != '*' && peek() != '/') && !tokenizationEnd()) {
-                    takeChar();
-                    if (peek() == '\n') {
-                        line++;
-                    }
+                addToken(keywordOrIdentifier(tokenStart, position));
+                break;
+            case QUOTE:
+                scanString();
+                break;
+            case PUNCTUATION:
+                addToken(SINGLE[c]);
+                break;
+            case COMPARISON:
+                if (matchAndConsume('=')) {
+                    addToken(WITH_EQUAL[c]);
+                } else if (SINGLE[c] != null) {
+                    addToken(SINGLE[c]);
+                } else {
+                    addError("<Unexpected Token: [" + c + "]>");
                 }
-                if (tokenizationEnd()) {
-                    tokenList.addToken(ERROR, "Error, unterminated comment", start, position, line, lineOffset);
+                break;
+            case SLASH_START:
+                scanSlash();
+                break;
+            default:
+                // from UTF-8 bytes a non-ASCII character is one error, not one per byte
+                while (!tokenizationEnd() && !src.startsCodePoint(peek())) {
+                    takeChar();
                 }
+                addError("<Unexpected Token: [" + src.substring(tokenStart, position) + "]>");
+        }
+    }
 
-                matchAndConsume('/');
+    // the value is worked out while scanning so nothing has to parse the text again
+    private void scanNumber(char first) {
+        int value = first - '0';
+        boolean overflow = false;
+        while (classOf(peek()) == DIGIT) {
+            int digit = takeChar() - '0';
+            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                overflow = true;
             } else {
-                tokenList.addToken(SLASH, "-", start, position, line, lineOffset);
+                value = value * 10 + digit;
+            }
+        }
+        if (overflow) {
+            addError("Error, integer literal out of range");
+        } else {
+            tokenList.addIntegerToken(value, tokenStart, position, tokenLine, tokenOffset);
+        }
+    }
+
+    private void scanString() {
+        while (peek() != '"' && !tokenizationEnd()) {
+            if (takeChar() == '\\' && !tokenizationEnd()) {
+                takeChar();
+            }
+        }
+        if (tokenizationEnd()) {
+            tokenList.addToken(ERROR, "Error, unterminated string", tokenStart + 1, position, tokenLine, tokenOffset);
+        } else {
+            takeChar();
+            tokenList.addToken(STRING, tokenStart + 1, position, tokenLine, tokenOffset);
+        }
+    }
+
+    private void scanSlash() {
+        if (matchAndConsume('/')) {
+            while (peek() != '\n' && !tokenizationEnd()) {
+                takeChar();
             }
-        } else if (matchAndConsume('=')) {
-            if (matchAndConsume('=')) {
-                tokenList.addToken(EQUAL_EQUAL, "==", start, position, line, lineOffset);
-            } else {
-                tokenList.addToken(EQUAL, "=", start, position, line, lineOffset);
-            }
-        } else if (matchAndConsume('(')) {
-            tokenList.addToken(LEFT_PAREN, "(", start, position, line, lineOffset);
-        } else if (matchAndConsume(')')) {
-            tokenList.addToken(RIGHT_PAREN, ")", start, position, line, lineOffset);
-        } else if (matchAndConsume('{')) {
-            tokenList.addToken(LEFT_BRACE, "{", start, position, line, lineOffset);
-        } else if (matchAndConsume('}')) {
-            tokenList.addToken(RIGHT_BRACE, "}", start, position, line, lineOffset);
-        } else if (matchAndConsume('[')) {
-            tokenList.addToken(LEFT_BRACKET, "[", start, position, line, lineOffset);
-        } else if (matchAndConsume(']')) {
-            tokenList.addToken(RIGHT_BRACKET, "]", start, position, line, lineOffset);
-        } else if (matchAndConsume(':')) {
-            tokenList.addToken(COLON, ":", start, position, line, lineOffset);
-        } else if (matchAndConsume(',')) {
-            tokenList.addToken(COMMA, ",", start, position, line, lineOffset);
-        } else if (matchAndConsume('.')) {
-            tokenList.addToken(DOT, ".", start, position, line, lineOffset);
         } else if (matchAndConsume('*')) {
-            tokenList.addToken(STAR, "*", start, position, line, lineOffset);
-        } else if (matchAndConsume('!')) {
-            if (matchAndConsume('=')) {
-                tokenList.addToken(BANG_EQUAL, "!=", start, position, line, lineOffset);
-            }
-        } else if (matchAndConsume('>')) {
-            if (matchAndConsume('=')) {
-                tokenList.addToken(GREATER_EQUAL, ">=", start, position, line, lineOffset);
-            } else {
-                tokenList.addToken(GREATER, ">", start, position, line, lineOffset);
+            while (!tokenizationEnd() && !(peek() == '*' && peekNext() == '/')) {
+                takeChar();
             }
-        } else if (matchAndConsume('<')) {
-            if (matchAndConsume('=')) {
-                tokenList.addToken(LESS_EQUAL, "<=", start, position, line, lineOffset);
+            if (tokenizationEnd()) {
+                addError("Error, unterminated comment");
             } else {
-                tokenList.addToken(LESS, "<", start, position, line, lineOffset);
+                takeChar();
+                takeChar();
             }
         } else {
-            tokenList.addToken(ERROR, "<Unexpected Token: [" + takeChar() + "]>", start, position, line, lineOffset);
+            addToken(SLASH);
+        }
+    }
+
+    private TokenType keywordOrIdentifier(int start, int end) {
+        int length = end - start;
+        int slot = keywordSlot(src.charAt(start), src.charAt(end - 1), length);
+        String keyword = KEYWORD_TEXT[slot];
+        if (keyword == null || keyword.length() != length) {
+            return IDENTIFIER;
+        }
+        for (int i = 0; i < length; i++) {
+            if (keyword.charAt(i) != src.charAt(start + i)) {
+                return IDENTIFIER;
+            }
         }
+        return KEYWORD_TYPES[slot];
+    }
+
+    private static int keywordSlot(char first, char last, int length) {
+        return (first + last + length) & (KEYWORD_SLOTS - 1);
+    }
+
+    private void addToken(TokenType type) {
+        tokenList.addToken(type, tokenStart, position, tokenLine, tokenOffset);
+    }
+
+    private void addError(String message) {
+        tokenList.addToken(ERROR, message, tokenStart, position, tokenLine, tokenOffset);
     }
 
     private void consumeWhitespace() {
-        // TODO update line and lineOffsets
         while (!tokenizationEnd()) {
-            char c = peek();
-            if (c == ' ' || c == '\r' || c == '\t') {
-                lineOffset++;
-                position++;
-                continue;
-            } else if (c == '\n') {
-                position++;
-                line++;
-                lineOffset = 0;
-                continue;
+            byte charClass = classOf(peek());
+            if (charClass != BLANK && charClass != NEWLINE) {
+                break;
             }
-            break;
+            takeChar();
         }
     }
 
@@ -194,29 +540,36 @@ public class CatScriptTokenizer {
         return src.charAt(position);
     }
 
-    private boolean isAlpha(char c) {
-        return (c >= 'a' && c <= 'z') ||
-                (c >= 'A' && c <= 'Z') ||
-                c == '_';
+    private char peekNext() {
+        if (src.isEnd(position + 1)) return '\0';
+        return src.charAt(position + 1);
     }
 
-    private boolean isAlphaNumeric(char c) {
-        return isAlpha(c) || isDigit(c);
+    private static byte classOf(char c) {
+        return c < CLASSES.length ? CLASSES[c] : OTHER;
     }
 
-    private boolean isDigit(char c) {
-        return c >= '0' && c <= '9';
+    private boolean isAlphaNumeric(char c) {
+        byte charClass = classOf(c);
+        return charClass == ALPHA || charClass == DIGIT;
     }
 
+    // every character goes through here, so this is the one place lines are counted
     private char takeChar() {
         char c = src.charAt(position);
-        lineOffset++;
         position++;
+        if (c == '\n') {
+            line++;
+            lineOffset = 0;
+            addLineStart(position);
+        } else if (c < 0x80 || src.startsCodePoint(c)) {
+            lineOffset++;
+        }
         return c;
     }
 
     private boolean tokenizationEnd() {
-        return position >= src.length();
+        return position >= limit || src.isEnd(position);
     }
 
     public boolean matchAndConsume(char c) {
@@ -227,23 +580,138 @@ public class CatScriptTokenizer {
         return false;
     }
 
-    public char current() {
-        if (tokenizationEnd()) return '\0';
-        return src.charAt(position - 1);
-    }
-
     public TokenList getTokens() {
         return tokenList;
     }
 
+    // punctuation and keywords share constant text, identifiers are interned per tokenizer
+    // and everything else stays a slice of the source until it is read
+    CharSequence valueOf(TokenType type, int start, int end) {
+        String text = FIXED_TEXT[type.ordinal()];
+        if (text != null) {
+            return text;
+        } else if (type == IDENTIFIER) {
+            return symbols.intern(src, start, end);
+        } else if (type == STRING) {
+            return src.slice(start, end - 1);
+        }
+        return src.slice(start, end);
+    }
+
+    private void addLineStart(int start) {
+        int stored = lineCount - lineBase;
+        if (stored == lineStarts.length) {
+            int[] grown = Arrays.copyOf(lineStarts, stored * 2);
+            System.arraycopy(lineStarts, stored - lineTail, grown, grown.length - lineTail, lineTail);
+            lineStarts = grown;
+        }
+        lineStarts[stored - lineTail] = start;
+        lineCount++;
+    }
+
+    // where the (index + 1)th line starts, which must not have been released
+    int lineStart(int index) {
+        int stored = lineCount - lineBase;
+        index -= lineBase;
+        return index < stored - lineTail ? lineStarts[index] : lineStarts[lineStarts.length - stored + index] + length;
+    }
+
+    // leaves the first count line starts at the front and counts the rest back from the end
+    private void moveLineGap(int count) {
+        while (lineCount - lineTail > count) {
+            int head = lineCount - lineTail;
+            lineStarts[lineStarts.length - lineTail - 1] = lineStarts[head - 1] - length;
+            lineTail++;
+        }
+        while (lineCount - lineTail < count) {
+            int head = lineCount - lineTail;
+            lineStarts[head] = lineStarts[lineStarts.length - lineTail] + length;
+            lineTail--;
+        }
+    }
+
+    // maps an offset to its line, column and line text using the line index, lines the
+    // tokenizer has not reached yet belong to the last line it has seen
+    public SourceLocation locate(int offset) {
+        if (offset < lineStart(lineBase)) {
+            throw new IllegalStateException("The line holding " + offset + " has been released");
+        }
+        int low = lineBase;
+        int high = lineCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lineStart(middle) <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        int column = 0;
+        for (int i = lineStart(low); i < offset && !src.isEnd(i); i++) {
+            char c = src.charAt(i);
+            if (c < 0x80 || src.startsCodePoint(c)) {
+                column++;
+            }
+        }
+        return new SourceLocation(low + 1, column, getLineContent(low + 1));
+    }
+
+    public String getLineContent(int line) {
+        if (line < 1 || line <= lineBase) {
+            return "";
+        }
+        int start;
+        if (line <= lineCount) {
+            start = lineStart(line - 1);
+        } else {
+            // a streaming tokenizer may be asked about lines it has not scanned yet
+            start = lineStart(lineCount - 1);
+            for (int current = lineCount; current < line; current++) {
+                while (!src.isEnd(start) && src.charAt(start) != '\n') {
+                    start++;
+                }
+                if (src.isEnd(start)) {
+                    return "";
+                }
+                start++;
+            }
+        }
+        if (src.isReleased(start)) {
+            return "";
+        }
+        int end = start;
+        while (!src.isEnd(end) && src.charAt(end) != '\n') {
+            end++;
+        }
+        return src.substring(start, end);
+    }
+
+    // keeps the line starts from the line holding position on
+    void release(int position) {
+        src.release(position);
+        int stored = lineCount - lineBase;
+        int keepFrom = 0;
+        while (keepFrom + 1 < stored && lineStarts[keepFrom + 1] <= position) {
+            keepFrom++;
+        }
+        if (keepFrom > 0) {
+            System.arraycopy(lineStarts, keepFrom, lineStarts, 0, stored - keepFrom);
+            lineBase += keepFrom;
+        }
+    }
+
     @Override
     public String toString() {
         if (tokenizationEnd()) {
             return src + "-->[]<--";
         } else {
+            int length = position;
+            while (!src.isEnd(length)) {
+                length++;
+            }
             return src.substring(0, position) + "-->[" + peek() + "]<--" +
-                    ((position == src.length() - 1) ? "" :
-                            src.substring(position + 1, src.length() - 1));
+                    ((position == length - 1) ? "" :
+                            src.substring(position + 1, length - 1));
         }
     }
 }
\ No newline at end of file
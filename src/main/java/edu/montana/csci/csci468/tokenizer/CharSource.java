@@ -0,0 +1,32 @@
+package edu.montana.csci.csci468.tokenizer;
+
+// Character input for the tokenizer, addressed by absolute position
+abstract class CharSource {
+
+    abstract boolean isEnd(int position);
+
+    abstract char charAt(int position);
+
+    abstract String substring(int start, int end);
+
+    // a token's value, read from the source when it is first needed
+    CharSequence slice(int start, int end) {
+        return new SourceSlice(this, start, end);
+    }
+
+    // false for characters that only continue the code point before them, so that columns
+    // count code points whether the source is UTF-16 chars or UTF-8 bytes
+    boolean startsCodePoint(char c) {
+        return !Character.isLowSurrogate(c);
+    }
+
+    // characters before this position will not be asked for again
+    void release(int position) {
+    }
+
+    // true if the character at this position has already been dropped after a release
+    boolean isReleased(int position) {
+        return false;
+    }
+
+}
@@ -0,0 +1,181 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static edu.montana.csci.csci468.tokenizer.TokenType.EOF;
+import static edu.montana.csci.csci468.tokenizer.TokenType.ERROR;
+import static edu.montana.csci.csci468.tokenizer.TokenType.INTEGER;
+
+// Stores tokens in parallel arrays rather than one object per token.  Values are read from
+// the source when first asked for, and a token is only made into a view when it is handed out
+class CompactTokenList extends TokenList {
+
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private int size = 0;
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int[] lines = new int[64];
+    private int[] lineOffsets = new int[64];
+    private byte[] types = new byte[64];
+    // the value of each INTEGER token, as the tokenizer read it
+    private int[] intValues = new int[64];
+    // error and EOF tokens carry a message rather than source text
+    private final Map<Integer, String> messages = new HashMap<>();
+    // the view of each token handed out so far, so each is made at most once
+    private TokenView[] views = new TokenView[64];
+
+    CompactTokenList(CatScriptTokenizer tokenizer) {
+        super(tokenizer);
+    }
+
+    @Override
+    void addToken(TokenType type, int start, int end, int line, int lineOffset) {
+        if (size == starts.length) {
+            grow();
+        }
+        starts[size] = start;
+        ends[size] = end;
+        lines[size] = line;
+        lineOffsets[size] = lineOffset;
+        types[size] = (byte) type.ordinal();
+        size++;
+    }
+
+    @Override
+    void addToken(TokenType type, CharSequence value, int start, int end, int line, int lineOffset) {
+        messages.put(size, value.toString());
+        addToken(type, start, end, line, lineOffset);
+    }
+
+    @Override
+    void addIntegerToken(int value, int start, int end, int line, int lineOffset) {
+        addToken(INTEGER, start, end, line, lineOffset);
+        intValues[size - 1] = value;
+    }
+
+    private void grow() {
+        int capacity = starts.length * 2;
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        lineOffsets = Arrays.copyOf(lineOffsets, capacity);
+        types = Arrays.copyOf(types, capacity);
+        intValues = Arrays.copyOf(intValues, capacity);
+    }
+
+    @Override
+    Token tokenAt(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        }
+        if (index >= views.length) {
+            views = Arrays.copyOf(views, Math.max(views.length * 2, index + 1));
+        }
+        TokenView view = views[index];
+        if (view == null) {
+            view = views[index] = new TokenView(index);
+        }
+        return view;
+    }
+
+    @Override
+    TokenType typeAt(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        }
+        return TYPES[types[index]];
+    }
+
+    @Override
+    public Stream<Token> stream() {
+        return IntStream.range(0, size).mapToObj(this::tokenAt);
+    }
+
+    @Override
+    public Iterator<Token> iterator() {
+        return stream().iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Token> action) {
+        stream().forEach(action);
+    }
+
+    @Override
+    public Spliterator<Token> spliterator() {
+        return stream().spliterator();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i == currentToken) {
+                sb.append("-->[");
+            }
+            sb.append(tokenAt(i).getStringValue());
+            if (i == currentToken) {
+                sb.append("]<--");
+            }
+            sb.append(" ");
+        }
+        return sb.toString();
+    }
+
+    private class TokenView extends Token {
+
+        private final int index;
+
+        TokenView(int index) {
+            super(CompactTokenList.this.tokenizer);
+            this.index = index;
+        }
+
+        @Override
+        public int getStart() {
+            return starts[index];
+        }
+
+        @Override
+        public int getEnd() {
+            return ends[index];
+        }
+
+        @Override
+        public int getLine() {
+            return lines[index];
+        }
+
+        @Override
+        public int getLineOffset() {
+            return lineOffsets[index];
+        }
+
+        @Override
+        public TokenType getType() {
+            return TYPES[types[index]];
+        }
+
+        @Override
+        public int getIntValue() {
+            return intValues[index];
+        }
+
+        @Override
+        public CharSequence getValue() {
+            if (value == null) {
+                TokenType type = getType();
+                value = type == ERROR || type == EOF ? messages.get(index) : tokenizer.valueOf(type, getStart(), getEnd());
+            }
+            return value;
+        }
+    }
+}
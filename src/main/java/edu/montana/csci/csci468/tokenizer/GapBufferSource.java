@@ -0,0 +1,84 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+
+// Source text that is edited in place, kept in an array with a gap at the last edit so that
+// an edit only moves the text between it and the one before
+class GapBufferSource extends CharSource {
+
+    private char[] chars;
+    private int gapStart;
+    private int gapEnd;
+
+    GapBufferSource(CharSequence text) {
+        chars = new char[text.length() + 64];
+        for (int i = 0; i < text.length(); i++) {
+            chars[i] = text.charAt(i);
+        }
+        gapStart = text.length();
+        gapEnd = chars.length;
+    }
+
+    int length() {
+        return chars.length - (gapEnd - gapStart);
+    }
+
+    void replace(int offset, int removedLength, String insertedText) {
+        moveGap(offset);
+        gapEnd += removedLength;
+        if (gapEnd - gapStart < insertedText.length()) {
+            int tail = chars.length - gapEnd;
+            char[] grown = Arrays.copyOf(chars, Math.max(chars.length * 2, length() + insertedText.length() + 64));
+            System.arraycopy(chars, gapEnd, grown, grown.length - tail, tail);
+            gapEnd = grown.length - tail;
+            chars = grown;
+        }
+        insertedText.getChars(0, insertedText.length(), chars, gapStart);
+        gapStart += insertedText.length();
+    }
+
+    private void moveGap(int offset) {
+        if (offset < gapStart) {
+            int moved = gapStart - offset;
+            System.arraycopy(chars, offset, chars, gapEnd - moved, moved);
+            gapStart -= moved;
+            gapEnd -= moved;
+        } else if (offset > gapStart) {
+            int moved = offset - gapStart;
+            System.arraycopy(chars, gapEnd, chars, gapStart, moved);
+            gapStart += moved;
+            gapEnd += moved;
+        }
+    }
+
+    @Override
+    boolean isEnd(int position) {
+        return position >= length();
+    }
+
+    @Override
+    char charAt(int position) {
+        return position < gapStart ? chars[position] : chars[position + gapEnd - gapStart];
+    }
+
+    @Override
+    String substring(int start, int end) {
+        if (end <= gapStart) {
+            return new String(chars, start, end - start);
+        } else if (start >= gapStart) {
+            return new String(chars, start + gapEnd - gapStart, end - start);
+        }
+        return new String(chars, start, gapStart - start) + new String(chars, gapEnd, end - gapStart);
+    }
+
+    // the text moves as it is edited, so values are copied out rather than sliced
+    @Override
+    CharSequence slice(int start, int end) {
+        return substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length());
+    }
+}
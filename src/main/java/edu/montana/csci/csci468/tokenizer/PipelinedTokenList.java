@@ -0,0 +1,202 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static edu.montana.csci.csci468.tokenizer.TokenType.EOF;
+import static edu.montana.csci.csci468.tokenizer.TokenType.INTEGER;
+
+// Tokens scanned on a thread of their own and handed to the reader in batches through a
+// bounded single-producer, single-consumer ring.  The tokenizer fills a batch and publishes it
+// by advancing tail, the reader takes batches by advancing head and appends them to tokens, so
+// the reader only waits once it has caught up with tail and the tokenizer only once the ring
+// is full.  All tokens are kept, so the list can be reset like any other.  A reader that stops
+// before EOF closes the list, so its tokenizer gives up rather than wait on a full ring
+class PipelinedTokenList extends TokenList {
+
+    static final int BATCH = 512;
+    // a power of two, so a position in the ring is a mask away
+    static final int RING = 64;
+
+    // producers beyond the pool's size wait for a thread rather than each getting one
+    private static final ExecutorService PRODUCERS = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+                Thread thread = new Thread(runnable, "CatScript tokenizer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Token[][] ring = new Token[RING][];
+    private volatile long head;
+    private volatile long tail;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private volatile boolean producing;
+    private Future<?> producer;
+
+    // only touched by the tokenizer's thread
+    private Token[] batch = new Token[BATCH];
+    private int batchSize;
+
+    // only touched by the reader's thread
+    private boolean drained;
+
+    PipelinedTokenList(CatScriptTokenizer tokenizer) {
+        super(tokenizer);
+    }
+
+    void start() {
+        producer = PRODUCERS.submit(this::produce);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        producer.cancel(false);
+    }
+
+    private void produce() {
+        producing = true;
+        try {
+            while (!closed && tokenizer.scanNext()) {
+            }
+            publish();
+        } catch (CancellationException e) {
+            // closed while waiting for room in the ring
+        } catch (Throwable t) {
+            failure = t;
+            publish();
+        } finally {
+            producing = false;
+        }
+    }
+
+    boolean isProducing() {
+        return producing;
+    }
+
+    @Override
+    void addToken(TokenType type, CharSequence value, int start, int end, int line, int lineOffset) {
+        add(new Token(start, end, line, lineOffset, value, type, tokenizer));
+    }
+
+    @Override
+    void addIntegerToken(int value, int start, int end, int line, int lineOffset) {
+        Token token = new Token(start, end, line, lineOffset, tokenizer.valueOf(INTEGER, start, end), INTEGER, tokenizer);
+        token.intValue = value;
+        add(token);
+    }
+
+    private void add(Token token) {
+        batch[batchSize++] = token;
+        if (batchSize == BATCH) {
+            publish();
+        }
+    }
+
+    private void publish() {
+        if (batchSize == 0) {
+            return;
+        }
+        long position = tail;
+        int idle = 0;
+        while (position - head == RING) {
+            if (closed) {
+                throw new CancellationException();
+            }
+            idle = await(idle);
+        }
+        // the last batch is cut to size, the reader takes a batch's length as its token count
+        ring[(int) position & (RING - 1)] = batchSize == BATCH ? batch : Arrays.copyOf(batch, batchSize);
+        tail = position + 1;
+        batch = new Token[BATCH];
+        batchSize = 0;
+    }
+
+    private boolean pull() {
+        if (drained) {
+            return false;
+        }
+        long position = head;
+        int idle = 0;
+        while (position == tail) {
+            if (closed) {
+                throw new IllegalStateException("The token list has been closed");
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Tokenizing failed", failure);
+            }
+            idle = await(idle);
+        }
+        int slot = (int) position & (RING - 1);
+        Token[] next = ring[slot];
+        ring[slot] = null;
+        head = position + 1;
+        tokens.addAll(Arrays.asList(next));
+        drained = next[next.length - 1].getType() == EOF;
+        return true;
+    }
+
+    // spins briefly, then yields, then parks, so a side left waiting on a slow other side
+    // gives up its core rather than burn it
+    private static int await(int idle) {
+        if (idle < 64) {
+            Thread.onSpinWait();
+        } else if (idle < 128) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(50_000);
+        }
+        return idle + 1;
+    }
+
+    private void drain() {
+        while (pull()) {
+        }
+    }
+
+    @Override
+    Token tokenAt(int index) {
+        while (index >= tokens.size() && pull()) {
+        }
+        return tokens.get(Math.min(index, tokens.size() - 1));
+    }
+
+    @Override
+    public Stream<Token> stream() {
+        drain();
+        return super.stream();
+    }
+
+    @Override
+    public Iterator<Token> iterator() {
+        drain();
+        return super.iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Token> action) {
+        drain();
+        super.forEach(action);
+    }
+
+    @Override
+    public Spliterator<Token> spliterator() {
+        drain();
+        return super.spliterator();
+    }
+
+    @Override
+    public String toString() {
+        drain();
+        return super.toString();
+    }
+}
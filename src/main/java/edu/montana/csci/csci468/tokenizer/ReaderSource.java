@@ -0,0 +1,110 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+// Reads characters on demand, keeping only a window from the oldest character still needed,
+// or from the start of its line if that is near, so that memory does not grow with the input.
+// Reading a character that has been dropped is an error
+class ReaderSource extends CharSource {
+
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private final Readable input;
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    private int bufferStart = 0;
+    private int bufferLength = 0;
+    private int released = 0;
+    private boolean eof = false;
+
+    ReaderSource(Readable input) {
+        this.input = input;
+    }
+
+    @Override
+    boolean isEnd(int position) {
+        return !fill(position);
+    }
+
+    @Override
+    char charAt(int position) {
+        checkNotReleased(position);
+        fill(position);
+        return buffer[position - bufferStart];
+    }
+
+    @Override
+    String substring(int start, int end) {
+        checkNotReleased(start);
+        if (end > start) {
+            fill(end - 1);
+        }
+        return new String(buffer, start - bufferStart, end - start);
+    }
+
+    private void checkNotReleased(int position) {
+        if (position < bufferStart) {
+            throw new IllegalStateException("The source before " + bufferStart + " has been released, " +
+                    position + " cannot be read");
+        }
+    }
+
+    @Override
+    void release(int position) {
+        released = Math.max(released, position);
+    }
+
+    @Override
+    boolean isReleased(int position) {
+        return position < bufferStart;
+    }
+
+    private boolean fill(int position) {
+        while (position >= bufferStart + bufferLength) {
+            if (eof) {
+                return false;
+            }
+            if (bufferLength == buffer.length) {
+                makeRoom();
+            }
+            try {
+                int read = input.read(CharBuffer.wrap(buffer, bufferLength, buffer.length - bufferLength));
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    bufferLength += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return true;
+    }
+
+    // drops the released characters, back to the start of the line the last of them is on if
+    // that is within a quarter of the buffer, so input without newlines is dropped all the same
+    private void makeRoom() {
+        int keepFrom = Math.min(released - bufferStart, bufferLength);
+        for (int i = keepFrom - 1; i >= 0 && keepFrom - i <= buffer.length / 4; i--) {
+            if (buffer[i] == '\n') {
+                keepFrom = i + 1;
+                break;
+            }
+        }
+        if (keepFrom > 0) {
+            System.arraycopy(buffer, keepFrom, buffer, 0, bufferLength - keepFrom);
+            bufferStart += keepFrom;
+            bufferLength -= keepFrom;
+        }
+        if (bufferLength > buffer.length / 2) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return substring(bufferStart, bufferStart + bufferLength);
+    }
+}
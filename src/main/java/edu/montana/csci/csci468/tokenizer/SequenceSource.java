@@ -0,0 +1,30 @@
+package edu.montana.csci.csci468.tokenizer;
+
+class SequenceSource extends CharSource {
+
+    private final CharSequence src;
+
+    SequenceSource(CharSequence src) {
+        this.src = src;
+    }
+
+    @Override
+    boolean isEnd(int position) {
+        return position >= src.length();
+    }
+
+    @Override
+    char charAt(int position) {
+        return src.charAt(position);
+    }
+
+    @Override
+    String substring(int start, int end) {
+        return src.subSequence(start, end).toString();
+    }
+
+    @Override
+    public String toString() {
+        return src.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package edu.montana.csci.csci468.tokenizer;
+
+// A resolved position in the source: 1-based line, 0-based column and the text of the line
+public class SourceLocation {
+
+    private final int line;
+    private final int column;
+    private final String lineContent;
+
+    public SourceLocation(int line, int column, String lineContent) {
+        this.line = line;
+        this.column = column;
+        this.lineContent = lineContent;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public String getLineContent() {
+        return lineContent;
+    }
+
+    @Override
+    public String toString() {
+        return line + ":" + column;
+    }
+}
@@ -0,0 +1,35 @@
+package edu.montana.csci.csci468.tokenizer;
+
+// A token value that points back into the source and is only copied out by toString()
+class SourceSlice implements CharSequence {
+
+    private final CharSource src;
+    private final int start;
+    private final int end;
+
+    SourceSlice(CharSource src, int start, int end) {
+        this.src = src;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return src.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new SourceSlice(src, this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        return src.substring(start, end);
+    }
+}
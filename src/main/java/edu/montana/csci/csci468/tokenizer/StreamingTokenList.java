@@ -0,0 +1,97 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static edu.montana.csci.csci468.tokenizer.TokenType.EOF;
+
+// Pulls tokens from the tokenizer as the parser asks for them.  Only a bounded window of
+// consumed tokens is kept, so lastToken() works but the list cannot be reset once it has slid
+class StreamingTokenList extends TokenList {
+
+    static final int WINDOW = 512;
+
+    int base = 0;
+
+    StreamingTokenList(CatScriptTokenizer tokenizer) {
+        super(tokenizer);
+    }
+
+    // the source window may slide before a lazy value is read, so copy values out right away
+    @Override
+    void addToken(TokenType type, int start, int end, int line, int lineOffset) {
+        addToken(type, tokenizer.valueOf(type, start, end).toString(), start, end, line, lineOffset);
+    }
+
+    @Override
+    Token tokenAt(int index) {
+        while (index - base >= tokens.size() && pull()) {
+        }
+        return tokens.get(Math.min(index - base, tokens.size() - 1));
+    }
+
+    boolean pull() {
+        return tokenizer.scanNext();
+    }
+
+    @Override
+    public Token consumeToken() {
+        Token token = super.consumeToken();
+        if (currentToken - base > 2 * WINDOW) {
+            int drop = currentToken - base - WINDOW;
+            tokens.subList(0, drop).clear();
+            base += drop;
+            tokenizer.release(tokens.get(0).getStart());
+        }
+        return token;
+    }
+
+    @Override
+    public void reset() {
+        if (base > 0) {
+            throw new IllegalStateException("A streaming token list cannot be reset after it has been consumed past its window");
+        }
+        super.reset();
+    }
+
+    @Override
+    public Stream<Token> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Iterator<Token> iterator() {
+        return new Iterator<>() {
+            int index = base;
+            boolean done = false;
+
+            @Override
+            public boolean hasNext() {
+                return !done;
+            }
+
+            @Override
+            public Token next() {
+                Token token = tokenAt(index++);
+                done = token.getType() == EOF;
+                return token;
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super Token> action) {
+        for (Token token : this) {
+            action.accept(token);
+        }
+    }
+
+    @Override
+    public Spliterator<Token> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+    }
+}
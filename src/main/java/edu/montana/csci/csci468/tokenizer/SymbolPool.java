@@ -0,0 +1,62 @@
+package edu.montana.csci.csci468.tokenizer;
+
+// Interns identifiers straight from the source, so every occurrence of a name in one
+// compilation shares a single String and name lookups hit the reference check in HashMap
+class SymbolPool {
+
+    private String[] table = new String[64];
+    private int size = 0;
+
+    String intern(CharSource src, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + src.charAt(i);
+        }
+        int mask = table.length - 1;
+        int slot = spread(hash) & mask;
+        String candidate;
+        while ((candidate = table[slot]) != null) {
+            if (candidate.hashCode() == hash && matches(candidate, src, start, end)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+        String symbol = src.substring(start, end);
+        table[slot] = symbol;
+        if (++size * 2 > table.length) {
+            rehash();
+        }
+        return symbol;
+    }
+
+    private boolean matches(String candidate, CharSource src, int start, int end) {
+        if (candidate.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (candidate.charAt(i - start) != src.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        String[] old = table;
+        table = new String[old.length * 2];
+        int mask = table.length - 1;
+        for (String symbol : old) {
+            if (symbol != null) {
+                int slot = spread(symbol.hashCode()) & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = symbol;
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -6,38 +6,64 @@ public class Token {
     int end;
     int line;
     int lineOffset;
-    String stringValue;
+    CharSequence value;
     TokenType type;
-    private final CatScriptTokenizer tokenizer;
+    // the value of an INTEGER token
+    int intValue;
+    CatScriptTokenizer tokenizer;
+    // set while the token lies after the last edit of a relexed source, its offsets and line
+    // then count back from the end of the source, see CatScriptTokenizer.relex
+    boolean fromEnd;
 
-    public Token(int start, int end, int line, int lineOffset, String stringValue, TokenType type, CatScriptTokenizer tokenizer) {
+    public Token(int start, int end, int line, int lineOffset, CharSequence value, TokenType type, CatScriptTokenizer tokenizer) {
         this.start = start;
         this.end = end;
         this.line = line;
         this.lineOffset = lineOffset;
-        this.stringValue = stringValue;
+        this.value = value;
         this.type = type;
         this.tokenizer = tokenizer;
     }
 
+    // used by views over a compact token list, which override the getters
+    Token(CatScriptTokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
     public int getStart() {
-        return start;
+        return fromEnd ? start + tokenizer.length : start;
     }
 
     public int getEnd() {
-        return end;
+        return fromEnd ? end + tokenizer.length : end;
     }
 
     public int getLine() {
-        return line;
+        return fromEnd ? line + tokenizer.lineCount : line;
     }
 
     public int getLineOffset() {
         return lineOffset;
     }
 
+    // source-backed values are only copied out of the source the first time they are read
+    public CharSequence getValue() {
+        if (value == null) {
+            value = tokenizer.valueOf(type, getStart(), getEnd());
+        }
+        return value;
+    }
+
     public String getStringValue() {
-        return stringValue;
+        CharSequence value = getValue();
+        if (!(value instanceof String)) {
+            this.value = value = value.toString();
+        }
+        return (String) value;
+    }
+
+    public int getIntValue() {
+        return intValue;
     }
 
     public TokenType getType() {
@@ -46,17 +72,22 @@ public class Token {
 
     @Override
     public String toString() {
-        return "Token(\"" + stringValue + "\"){" +
-                "type=" + type +
-                ", start=" + start +
-                ", end=" + end +
-                ", line=" + line +
-                ", offset=" + lineOffset +
+        return "Token(\"" + getStringValue() + "\"){" +
+                "type=" + getType() +
+                ", start=" + getStart() +
+                ", end=" + getEnd() +
+                ", line=" + getLine() +
+                ", offset=" + getLineOffset() +
                 '}';
     }
 
+    // tokens loaded with a serialized program have no source behind them
     public String getLineContent() {
-        String[] lines = tokenizer.src.split("\n");
-        return lines[line - 1];
+        return tokenizer == null ? "" : tokenizer.getLineContent(getLine());
+    }
+
+    // where the token ends, which for multi-line strings is not on the line it starts on
+    public SourceLocation getEndLocation() {
+        return tokenizer.locate(getEnd());
     }
 }
@@ -0,0 +1,77 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+// The tokens of a source that is being edited, kept in an array with a gap at the last edit.
+// Tokens after the gap count back from the end of the source, so an edit before them moves
+// them without touching them, and only the tokens the gap passes over are converted
+class TokenGapList extends AbstractList<Token> implements RandomAccess {
+
+    private final CatScriptTokenizer tokenizer;
+    private Token[] tokens;
+    private int gapStart;
+    private int gapEnd;
+
+    TokenGapList(CatScriptTokenizer tokenizer, List<Token> tokens) {
+        this.tokenizer = tokenizer;
+        this.tokens = tokens.toArray(new Token[tokens.size() + 64]);
+        this.gapStart = tokens.size();
+        this.gapEnd = this.tokens.length;
+    }
+
+    @Override
+    public Token get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size());
+        }
+        return index < gapStart ? tokens[index] : tokens[index + gapEnd - gapStart];
+    }
+
+    @Override
+    public int size() {
+        return tokens.length - (gapEnd - gapStart);
+    }
+
+    // moves the gap to index, counting the tokens it passes from the end of the source or from
+    // its start again, with the source's current length and line count
+    void moveGap(int index) {
+        while (gapStart > index) {
+            Token token = tokens[--gapStart];
+            tokens[gapStart] = null;
+            tokens[--gapEnd] = token;
+            token.start -= tokenizer.length;
+            token.end -= tokenizer.length;
+            token.line -= tokenizer.lineCount;
+            token.fromEnd = true;
+        }
+        while (gapStart < index) {
+            Token token = tokens[gapEnd];
+            tokens[gapEnd++] = null;
+            tokens[gapStart++] = token;
+            token.start += tokenizer.length;
+            token.end += tokenizer.length;
+            token.line += tokenizer.lineCount;
+            token.fromEnd = false;
+        }
+    }
+
+    // drops the count tokens just after the gap and puts these in front of it
+    void replaceAfterGap(int count, List<Token> inserted) {
+        Arrays.fill(tokens, gapEnd, gapEnd + count, null);
+        gapEnd += count;
+        if (gapEnd - gapStart < inserted.size()) {
+            int tail = tokens.length - gapEnd;
+            Token[] grown = Arrays.copyOf(tokens, Math.max(tokens.length * 2, size() + inserted.size() + 64));
+            System.arraycopy(tokens, gapEnd, grown, grown.length - tail, tail);
+            Arrays.fill(grown, gapStart, grown.length - tail, null);
+            gapEnd = grown.length - tail;
+            tokens = grown;
+        }
+        for (Token token : inserted) {
+            tokens[gapStart++] = token;
+        }
+    }
+}
@@ -9,10 +9,11 @@ import java.util.stream.Stream;
 
 import static edu.montana.csci.csci468.tokenizer.TokenType.EOF;
 import static edu.montana.csci.csci468.tokenizer.TokenType.IDENTIFIER;
+import static edu.montana.csci.csci468.tokenizer.TokenType.INTEGER;
 
 public class TokenList implements Iterable<Token> {
 
-    private final CatScriptTokenizer tokenizer;
+    final CatScriptTokenizer tokenizer;
     List<Token> tokens = new ArrayList<>();
     int currentToken = 0;
 
@@ -20,16 +21,57 @@ public class TokenList implements Iterable<Token> {
         this.tokenizer = tokenizer;
     }
 
-    void addToken(TokenType eof, String stringValue, int start, int end, int line, int lineOffset) {
-        tokens.add(new Token(start, end, line, lineOffset - (end - start), stringValue, eof, tokenizer));
+    void addToken(TokenType type, int start, int end, int line, int lineOffset) {
+        addToken(type, tokenizer.valueOf(type, start, end), start, end, line, lineOffset);
+    }
+
+    void addToken(TokenType eof, CharSequence value, int start, int end, int line, int lineOffset) {
+        tokens.add(new Token(start, end, line, lineOffset, value, eof, tokenizer));
+    }
+
+    void addIntegerToken(int value, int start, int end, int line, int lineOffset) {
+        addToken(INTEGER, start, end, line, lineOffset);
+        tokens.get(tokens.size() - 1).intValue = value;
+    }
+
+    Token tokenAt(int index) {
+        return tokens.get(index);
+    }
+
+    // lets the parser's checks read a token's type without a compact list making a view of it
+    TokenType typeAt(int index) {
+        return tokenAt(index).getType();
     }
 
     public Token getCurrentToken() {
-        return tokens.get(currentToken);
+        return tokenAt(currentToken);
     }
 
     public Token consumeToken() {
-        return tokens.get(currentToken++);
+        Token token = tokenAt(currentToken);
+        if (typeAt(currentToken) != EOF) {
+            currentToken++;
+        }
+        return token;
+    }
+
+    // the token this many places past the current one, or EOF if the input ends first
+    public Token peekToken(int ahead) {
+        int index = currentToken;
+        for (int i = 0; i < ahead && typeAt(index) != EOF; i++) {
+            index++;
+        }
+        return tokenAt(index);
+    }
+
+    // single type overloads keep the parser from allocating a varargs array on every check
+    public boolean matchAndConsume(TokenType type) {
+        if (match(type)) {
+            consumeToken();
+            return true;
+        } else {
+            return false;
+        }
     }
 
     public boolean matchAndConsume(TokenType... type) {
@@ -42,7 +84,7 @@ public class TokenList implements Iterable<Token> {
     }
 
     public boolean match(String identifier) {
-        if (getCurrentToken().getType().equals(IDENTIFIER) &&
+        if (typeAt(currentToken) == IDENTIFIER &&
             getCurrentToken().getStringValue().equals(identifier)) {
             return true;
         } else {
@@ -50,25 +92,46 @@ public class TokenList implements Iterable<Token> {
         }
     }
 
+    public boolean match(TokenType type) {
+        return typeAt(currentToken) == type;
+    }
+
     public boolean match(TokenType... type) {
+        TokenType current = typeAt(currentToken);
         for (TokenType tokenType : type) {
-            if (getCurrentToken().getType().equals(tokenType)) {
+            if (current == tokenType) {
                 return true;
             }
         }
         return false;
     }
 
+    // lets go of whatever is still producing tokens, for a reader that stops before EOF
+    public void close() {
+    }
+
     public void reset() {
         currentToken = 0;
     }
 
     public boolean hasMoreTokens() {
-        return currentToken < tokens.size() - 1;
+        return typeAt(currentToken) != EOF;
     }
 
     public Token lastToken() {
-        return tokens.get(Math.max(0, currentToken - 1));
+        return tokenAt(Math.max(0, currentToken - 1));
+    }
+
+    // the tokens from index from up to and including index to, then EOF, so that part of the
+    // list can be parsed on its own
+    public TokenList slice(int from, int to) {
+        TokenList slice = new TokenList(tokenizer);
+        for (int i = from; i <= to; i++) {
+            slice.tokens.add(tokenAt(i));
+        }
+        Token last = tokenAt(to);
+        slice.addToken(EOF, "<EOF>", last.getEnd(), last.getEnd(), last.getLine(), last.getLineOffset());
+        return slice;
     }
 
     public Stream<Token> stream() {
@@ -81,7 +144,7 @@ public class TokenList implements Iterable<Token> {
     }
 
     @Override
-    public void forEach(Consumer action) {
+    public void forEach(Consumer<? super Token> action) {
         tokens.forEach(action);
     }
 
@@ -1,6 +1,7 @@
 package edu.montana.csci.csci468.util;
 
 import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.tokenizer.Token;
 
 public class HTMLParseTreeRenderer  {
 
@@ -12,7 +13,14 @@ public class HTMLParseTreeRenderer  {
     }
 
     private static void renderElement(StringBuilder buffer, ParseElement root) {
-        buffer.append("<li>");
+        buffer.append("<li");
+        Token start = root.getStart();
+        Token end = root.getEnd();
+        if (start != null && end != null) {
+            buffer.append(" title=\"").append(start.getLine()).append(":").append(start.getLineOffset())
+                    .append(" - ").append(end.getEndLocation()).append("\"");
+        }
+        buffer.append(">");
         buffer.append(root.toString());
         buffer.append("<ul>");
         for (ParseElement child : root.getChildren()) {
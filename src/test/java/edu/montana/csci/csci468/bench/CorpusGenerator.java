@@ -0,0 +1,404 @@
+package edu.montana.csci.csci468.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Seeded generator of valid, type-correct CatScript programs for scaling runs.  A program is a
+// run of function definitions followed by top level statements that call them.  Functions only
+// call the ones defined before them, so nothing recurses, and every name is used once so scopes
+// never clash.  The same seed and settings always give the same program
+public class CorpusGenerator {
+
+    enum Kind {
+        INT("int"), STRING("string"), BOOL("bool"), INT_LIST("list<int>"), STRING_LIST("list<string>");
+
+        final String name;
+
+        Kind(String name) {
+            this.name = name;
+        }
+
+        boolean isList() {
+            return this == INT_LIST || this == STRING_LIST;
+        }
+
+        Kind component() {
+            return this == INT_LIST ? INT : STRING;
+        }
+    }
+
+    private static final String[] WORDS = {"cat", "script", "montana", "bobcat", "grizzly", "bison", "elk",
+            "trout", "bitterroot", "bridger", "yellowstone", "glacier", "compiler", "token", "parser"};
+
+    private final long seed;
+    private int functions = 100;
+    private int statementsPerBlock = 4;
+    private int depth = 2;
+    private int expressionWidth = 3;
+    private int listSize = 3;
+    private double stringWeight = 0.3;
+
+    private Random random;
+    private StringBuilder out;
+    private int indent;
+    private int names;
+    private final List<String> functionNames = new ArrayList<>();
+    private final List<Kind[]> functionParameters = new ArrayList<>();
+    private final List<Kind> functionReturns = new ArrayList<>();
+    private final List<List<String>> scopeNames = new ArrayList<>();
+    private final List<List<Kind>> scopeKinds = new ArrayList<>();
+
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public void setFunctions(int functions) {
+        this.functions = functions;
+    }
+
+    public void setStatementsPerBlock(int statementsPerBlock) {
+        this.statementsPerBlock = statementsPerBlock;
+    }
+
+    // how many blocks deep if and for statements nest inside a function body
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    // the most operands in one chain of binary operators
+    public void setExpressionWidth(int expressionWidth) {
+        this.expressionWidth = expressionWidth;
+    }
+
+    public void setListSize(int listSize) {
+        this.listSize = Math.max(1, listSize);
+    }
+
+    // the share of values that are strings or lists of strings, the rest being ints and bools
+    public void setStringWeight(double stringWeight) {
+        this.stringWeight = stringWeight;
+    }
+
+    public String generate() {
+        random = new Random(seed);
+        out = new StringBuilder();
+        indent = 0;
+        names = 0;
+        functionNames.clear();
+        functionParameters.clear();
+        functionReturns.clear();
+        scopeNames.clear();
+        scopeKinds.clear();
+
+        pushScope();
+        for (int i = 0; i < functions; i++) {
+            function(i);
+        }
+        for (int i = 0; i < Math.max(1, functions / 4); i++) {
+            statement(depth);
+        }
+        popScope();
+        return out.toString();
+    }
+
+    // Inserts statements that are sure to fail, alternating a syntax error, an unknown name and a
+    // type mismatch.  Every line of a generated program is a statement or a block boundary, so
+    // a whole statement can go in front of any of them
+    public String corrupt(String source, int corruptions) {
+        Random random = new Random(seed ^ corruptions);
+        List<String> lines = new ArrayList<>(List.of(source.split("\n")));
+        for (int i = 0; i < corruptions; i++) {
+            String line;
+            switch (i % 3) {
+                case 0: line = "print(1 +)"; break;
+                case 1: line = "print(missing" + i + ")"; break;
+                default: line = "var broken" + i + " : int = \"" + WORDS[random.nextInt(WORDS.length)] + "\""; break;
+            }
+            lines.add(random.nextInt(lines.size() + 1), line);
+        }
+        return String.join("\n", lines) + "\n";
+    }
+
+    //============================================================
+    //  Statements
+    //============================================================
+
+    private void function(int index) {
+        String name = "f" + index;
+        Kind[] parameters = new Kind[1 + random.nextInt(3)];
+        Kind returns = random.nextInt(5) == 0 ? null : pickKind();
+        line().append("function ").append(name).append("(");
+        pushScope();
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = pickKind();
+            String parameter = declare(parameters[i]);
+            out.append(i == 0 ? "" : ", ").append(parameter).append(" : ").append(parameters[i].name);
+        }
+        out.append(")");
+        if (returns != null) {
+            out.append(" : ").append(returns.name);
+        }
+        out.append(" {\n");
+        indent++;
+        block(depth);
+        if (returns != null) {
+            line().append("return ").append(expression(returns, 1)).append("\n");
+        }
+        indent--;
+        popScope();
+        line().append("}\n");
+        // registered after its body so that functions only ever call earlier ones
+        functionNames.add(name);
+        functionParameters.add(parameters);
+        functionReturns.add(returns);
+    }
+
+    private void block(int depth) {
+        int count = 1 + random.nextInt(statementsPerBlock);
+        for (int i = 0; i < count; i++) {
+            statement(depth);
+        }
+    }
+
+    private void statement(int depth) {
+        int choice = random.nextInt(depth > 0 ? 7 : 5);
+        switch (choice) {
+            case 0:
+            case 1: {
+                Kind kind = pickKind();
+                String value = expression(kind, 2);
+                String name = declare(kind);
+                // explicit list types are only understood for list<int> in variable statements
+                if (kind != Kind.STRING_LIST && random.nextBoolean()) {
+                    line().append("var ").append(name).append(" : ").append(kind.name).append(" = ").append(value).append("\n");
+                } else {
+                    line().append("var ").append(name).append(" = ").append(value).append("\n");
+                }
+                break;
+            }
+            case 2: {
+                Kind kind = pickKind();
+                String variable = pickVariable(kind);
+                if (variable != null) {
+                    line().append(variable).append(" = ").append(expression(kind, 2)).append("\n");
+                } else {
+                    line().append("print(").append(expression(kind, 2)).append(")\n");
+                }
+                break;
+            }
+            case 3:
+                line().append("print(").append(expression(pickKind(), 2)).append(")\n");
+                break;
+            case 4:
+                if (functionNames.isEmpty()) {
+                    line().append("print(").append(expression(pickKind(), 2)).append(")\n");
+                } else {
+                    line().append(call(random.nextInt(functionNames.size()))).append("\n");
+                }
+                break;
+            case 5:
+                line().append("if (").append(expression(Kind.BOOL, 2)).append(") {\n");
+                nested(depth, null, null);
+                if (random.nextBoolean()) {
+                    line().append("} else {\n");
+                    nested(depth, null, null);
+                }
+                line().append("}\n");
+                break;
+            default: {
+                Kind list = random.nextDouble() < stringWeight ? Kind.STRING_LIST : Kind.INT_LIST;
+                String iterable = expression(list, 2);
+                String variable = "v" + names++;
+                line().append("for (").append(variable).append(" in ").append(iterable).append(") {\n");
+                nested(depth, variable, list.component());
+                line().append("}\n");
+                break;
+            }
+        }
+    }
+
+    private void nested(int depth, String variable, Kind kind) {
+        indent++;
+        pushScope();
+        if (variable != null) {
+            scopeNames.get(scopeNames.size() - 1).add(variable);
+            scopeKinds.get(scopeKinds.size() - 1).add(kind);
+        }
+        block(depth - 1);
+        popScope();
+        indent--;
+    }
+
+    //============================================================
+    //  Expressions
+    //============================================================
+
+    // level bounds how far parenthesized expressions and call arguments may nest
+    private String expression(Kind kind, int level) {
+        StringBuilder sb = new StringBuilder();
+        int width = 1 + random.nextInt(expressionWidth);
+        switch (kind) {
+            case INT:
+                sb.append(intTerm(level));
+                for (int i = 1; i < width; i++) {
+                    switch (random.nextInt(4)) {
+                        case 0: sb.append(" + ").append(intTerm(level)); break;
+                        case 1: sb.append(" - ").append(intTerm(level)); break;
+                        case 2: sb.append(" * ").append(intTerm(level)); break;
+                        default: sb.append(" / ").append(1 + random.nextInt(9)); break;
+                    }
+                }
+                return sb.toString();
+            case STRING:
+                sb.append(atom(Kind.STRING, level));
+                for (int i = 1; i < width; i++) {
+                    // anything can be added to a string, but only as a single term so that a
+                    // following minus never lands on the string
+                    Kind term = random.nextDouble() < stringWeight ? Kind.STRING : random.nextBoolean() ? Kind.INT : Kind.BOOL;
+                    sb.append(" + ").append(atom(term, level));
+                }
+                return sb.toString();
+            case BOOL:
+                switch (random.nextInt(4)) {
+                    case 0:
+                        return expression(Kind.INT, level) + " " + pick("<", "<=", ">", ">=") + " " + expression(Kind.INT, level);
+                    case 1:
+                        Kind compared = pickKind();
+                        return atom(compared, level) + " " + pick("==", "!=") + " " + atom(compared, level);
+                    case 2:
+                        return "not " + atom(Kind.BOOL, level);
+                    default:
+                        return atom(Kind.BOOL, level);
+                }
+            default:
+                return atom(kind, level);
+        }
+    }
+
+    private String intTerm(int level) {
+        if (random.nextInt(6) == 0) {
+            return "-" + atom(Kind.INT, level);
+        }
+        return atom(Kind.INT, level);
+    }
+
+    private String atom(Kind kind, int level) {
+        int choice = random.nextInt(level > 0 ? 5 : 3);
+        if (choice == 1) {
+            String variable = pickVariable(kind);
+            if (variable != null) {
+                return variable;
+            }
+        } else if (choice == 2 || choice == 3) {
+            int function = pickFunction(kind);
+            if (function >= 0 && level > 0) {
+                return call(function, level - 1);
+            }
+        } else if (choice == 4 && !kind.isList()) {
+            return "(" + expression(kind, level - 1) + ")";
+        }
+        return literal(kind, level);
+    }
+
+    private String literal(Kind kind, int level) {
+        switch (kind) {
+            case INT:
+                return String.valueOf(random.nextInt(1000));
+            case STRING:
+                return "\"" + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(100) + "\"";
+            case BOOL:
+                return random.nextBoolean() ? "true" : "false";
+            default:
+                StringBuilder sb = new StringBuilder("[");
+                int size = 1 + random.nextInt(listSize);
+                for (int i = 0; i < size; i++) {
+                    sb.append(i == 0 ? "" : ", ").append(atom(kind.component(), Math.max(0, level - 1)));
+                }
+                return sb.append("]").toString();
+        }
+    }
+
+    private String call(int function) {
+        return call(function, 1);
+    }
+
+    private String call(int function, int level) {
+        StringBuilder sb = new StringBuilder(functionNames.get(function)).append("(");
+        Kind[] parameters = functionParameters.get(function);
+        for (int i = 0; i < parameters.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(expression(parameters[i], level));
+        }
+        return sb.append(")").toString();
+    }
+
+    //============================================================
+    //  Helpers
+    //============================================================
+
+    private Kind pickKind() {
+        if (random.nextDouble() < stringWeight) {
+            return random.nextInt(5) == 0 ? Kind.STRING_LIST : Kind.STRING;
+        }
+        int choice = random.nextInt(20);
+        return choice < 12 ? Kind.INT : choice < 17 ? Kind.BOOL : Kind.INT_LIST;
+    }
+
+    private String pickVariable(Kind kind) {
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < scopeNames.size(); i++) {
+            // top level variables are not in scope when a function runs
+            if (i == 0 && scopeNames.size() > 1) {
+                continue;
+            }
+            for (int j = 0; j < scopeNames.get(i).size(); j++) {
+                if (scopeKinds.get(i).get(j) == kind) {
+                    candidates.add(scopeNames.get(i).get(j));
+                }
+            }
+        }
+        return candidates.isEmpty() ? null : candidates.get(random.nextInt(candidates.size()));
+    }
+
+    private int pickFunction(Kind returns) {
+        if (functionNames.isEmpty()) {
+            return -1;
+        }
+        // a few probes rather than a scan keeps large corpora linear to generate
+        for (int i = 0; i < 4; i++) {
+            int function = random.nextInt(functionNames.size());
+            if (functionReturns.get(function) == returns) {
+                return function;
+            }
+        }
+        return -1;
+    }
+
+    private String pick(String... options) {
+        return options[random.nextInt(options.length)];
+    }
+
+    private String declare(Kind kind) {
+        String name = "v" + names++;
+        scopeNames.get(scopeNames.size() - 1).add(name);
+        scopeKinds.get(scopeKinds.size() - 1).add(kind);
+        return name;
+    }
+
+    private void pushScope() {
+        scopeNames.add(new ArrayList<>());
+        scopeKinds.add(new ArrayList<>());
+    }
+
+    private void popScope() {
+        scopeNames.remove(scopeNames.size() - 1);
+        scopeKinds.remove(scopeKinds.size() - 1);
+    }
+
+    private StringBuilder line() {
+        for (int i = 0; i < indent; i++) {
+            out.append("  ");
+        }
+        return out;
+    }
+}
@@ -0,0 +1,49 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.ParseErrorException;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CorpusGeneratorTest {
+
+    @Test
+    public void generatedProgramsVerify() {
+        for (int seed = 0; seed < 40; seed++) {
+            CorpusGenerator generator = new CorpusGenerator(seed);
+            generator.setFunctions(5 + seed);
+            generator.setDepth(seed % 4);
+            generator.setExpressionWidth(1 + seed % 5);
+            generator.setListSize(1 + seed % 6);
+            generator.setStringWeight(seed % 2 == 0 ? 0.1 : 0.8);
+            String source = generator.generate();
+            CatScriptProgram program = new CatScriptParser().parse(source);
+            assertDoesNotThrow(program::verify, source);
+            assertDoesNotThrow(new CatScriptParser().parse(source)::verifyInParallel, source);
+        }
+    }
+
+    @Test
+    public void sameSeedGivesTheSameProgram() {
+        CorpusGenerator generator = new CorpusGenerator(468);
+        String first = generator.generate();
+        assertEquals(first, generator.generate());
+        assertEquals(first, new CorpusGenerator(468).generate());
+        assertNotEquals(first, new CorpusGenerator(469).generate());
+    }
+
+    @Test
+    public void corruptedProgramsFail() {
+        for (int seed = 0; seed < 20; seed++) {
+            CorpusGenerator generator = new CorpusGenerator(seed);
+            generator.setFunctions(10);
+            String source = generator.generate();
+            for (int corruptions = 1; corruptions <= 3; corruptions++) {
+                String corrupted = generator.corrupt(source, corruptions);
+                assertThrows(ParseErrorException.class, () -> new CatScriptParser().parse(corrupted).verify(), corrupted);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+// A tight evaluator loop, where nearly all the time goes to reading and writing variables
+public class EvalBenchmark {
+
+    static final int WARMUP = 5;
+    static final int RUNS = 10;
+
+    static final String SOURCE = "function work(n : int) : int {\n" +
+            "  var total = 0\n" +
+            "  var values = [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]\n" +
+            "  for (i in values) { for (j in values) { for (k in values) {\n" +
+            "    total = total + i * j - k\n" +
+            "  } } }\n" +
+            "  return total + n\n" +
+            "}\n" +
+            "var sum = 0\n" +
+            "for (x in [1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20]) {\n" +
+            "  sum = sum + work(x)\n" +
+            "}\n" +
+            "print(sum)\n";
+
+    public static void main(String[] args) {
+        CatScriptProgram verified = new CatScriptParser().parse(SOURCE);
+        verified.verify();
+        run("nested loops", verified);
+    }
+
+    static void run(String label, CatScriptProgram program) {
+        for (int i = 0; i < WARMUP; i++) {
+            program.execute(new CatscriptRuntime());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            program.execute(new CatscriptRuntime());
+        }
+        System.out.printf("%s: %.2f ms per run%n", label, (System.nanoTime() - start) / 1e6 / RUNS);
+    }
+}
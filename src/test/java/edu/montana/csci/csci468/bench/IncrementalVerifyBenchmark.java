@@ -0,0 +1,40 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.IncrementalVerifier;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+// Verifying a generated program of a few thousand functions again after an edit inside one
+// function body, all over against incrementally
+public class IncrementalVerifyBenchmark {
+
+    static final int FUNCTIONS = 4000;
+    static final int RUNS = 20;
+
+    public static void main(String[] args) {
+        CorpusGenerator generator = new CorpusGenerator(468);
+        generator.setFunctions(FUNCTIONS);
+        String source = generator.generate();
+        // a space after the opening brace of a function halfway down
+        int offset = source.indexOf('{', source.indexOf("function", source.length() / 2)) + 1;
+
+        CatScriptParser parser = new CatScriptParser();
+        CatScriptProgram program = parser.parse(source);
+        IncrementalVerifier verifier = new IncrementalVerifier();
+        verifier.verify(program);
+        long full = 0;
+        long incremental = 0;
+        for (int i = 0; i < RUNS; i++) {
+            program = parser.reparse(program, offset, 0, " ");
+            long start = System.nanoTime();
+            verifier.verify(program);
+            incremental += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            program.verify();
+            full += System.nanoTime() - start;
+        }
+        System.out.printf("%d KB, %d statements checked again%n", source.length() / 1024, verifier.getCheckedStatements());
+        System.out.printf("verify: %.2f ms, incremental: %.2f ms%n", full / 1e6 / RUNS, incremental / 1e6 / RUNS);
+    }
+}
@@ -0,0 +1,50 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+
+// Sequential against parallel and pipelined parsing of a generated file of 10k function definitions
+public class ParallelParseBenchmark {
+
+    static final int FUNCTIONS = 10_000;
+    static final int WARMUP = 5;
+    static final int RUNS = 10;
+
+    public static void main(String[] args) {
+        String source = buildCorpus();
+        System.out.printf("%d cores, %d KB of source%n", Runtime.getRuntime().availableProcessors(),
+                source.length() / 1024);
+        run("sequential", () -> new CatScriptParser().parse(source));
+        run("parallel", () -> new CatScriptParser().parseParallel(source));
+        run("pipelined", () -> new CatScriptParser().parsePipelined(source));
+    }
+
+    static void run(String label, Runnable parse) {
+        for (int i = 0; i < WARMUP; i++) {
+            parse.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            parse.run();
+        }
+        System.out.printf("%s: %.2f ms per parse%n", label, (System.nanoTime() - start) / 1e6 / RUNS);
+    }
+
+    static String buildCorpus() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < FUNCTIONS; i++) {
+            sb.append("function f").append(i).append("(a : int, b : list<int>) : int {\n")
+                    .append("  var total = a * ").append(i).append(" + 12 - a / 3\n")
+                    .append("  for (x in b) {\n")
+                    .append("    if (x >= total) {\n")
+                    .append("      total = total + x\n")
+                    .append("    } else {\n")
+                    .append("      print(\"small \" + x)\n")
+                    .append("    }\n")
+                    .append("  }\n")
+                    .append("  return total\n")
+                    .append("}\n");
+        }
+        sb.append("print(f0(1, [1, 2, 3]))\n");
+        return sb.toString();
+    }
+}
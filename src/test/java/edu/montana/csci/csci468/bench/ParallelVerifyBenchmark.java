@@ -0,0 +1,39 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.util.function.Consumer;
+
+// Sequential against parallel verification of a generated program of a few thousand functions,
+// timing the verify alone
+public class ParallelVerifyBenchmark {
+
+    static final int FUNCTIONS = 4000;
+    static final int WARMUP = 5;
+    static final int RUNS = 10;
+
+    public static void main(String[] args) {
+        CorpusGenerator generator = new CorpusGenerator(468);
+        generator.setFunctions(FUNCTIONS);
+        String source = generator.generate();
+        System.out.printf("%d cores, %d KB of source%n", Runtime.getRuntime().availableProcessors(),
+                source.length() / 1024);
+        run("sequential", source, CatScriptProgram::verify);
+        run("parallel", source, CatScriptProgram::verifyInParallel);
+    }
+
+    static void run(String label, String source, Consumer<CatScriptProgram> verify) {
+        for (int i = 0; i < WARMUP; i++) {
+            verify.accept(new CatScriptParser().parse(source));
+        }
+        long total = 0;
+        for (int i = 0; i < RUNS; i++) {
+            CatScriptProgram program = new CatScriptParser().parse(source);
+            long start = System.nanoTime();
+            verify.accept(program);
+            total += System.nanoTime() - start;
+        }
+        System.out.printf("%s: %.2f ms per verify%n", label, total / 1e6 / RUNS);
+    }
+}
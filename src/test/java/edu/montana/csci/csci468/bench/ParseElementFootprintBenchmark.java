@@ -0,0 +1,59 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Bytes allocated per parse tree node while parsing, counted by the thread's allocation counter
+// where the JVM keeps one.  See ParseElement for how a node's size is made up
+public class ParseElementFootprintBenchmark {
+
+    static final int FUNCTIONS = 2000;
+    static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean) ||
+                !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            System.out.println("this JVM does not count allocations per thread");
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+
+        StringBuilder src = new StringBuilder();
+        for (int i = 0; i < FUNCTIONS; i++) {
+            src.append("function f").append(i).append("(a : int, b : list<int>) : int {\n")
+                    .append("  var total = a * ").append(i).append(" + 12 - a / 3\n")
+                    .append("  for (x in b) {\n")
+                    .append("    if (x >= total) { total = total + x } else { print(\"small \" + x) }\n")
+                    .append("  }\n")
+                    .append("  return total\n")
+                    .append("}\n")
+                    .append("print(f").append(i).append("(").append(i).append(", [1, 2, 3]))\n");
+        }
+        // classes are loaded and tokens allocated first so that only the tree is counted
+        new CatScriptParser().parse(src.substring(0, 1000));
+        long thread = Thread.currentThread().getId();
+        for (int run = 0; run < RUNS; run++) {
+            TokenList tokens = new CatScriptTokenizer(src.toString()).getTokens();
+            long before = allocations.getThreadAllocatedBytes(thread);
+            CatScriptProgram program = new CatScriptParser().parse(tokens);
+            long allocated = allocations.getThreadAllocatedBytes(thread) - before;
+            long nodes = countNodes(program);
+            System.out.printf("%d nodes, %d bytes allocated per node%n", nodes, allocated / nodes);
+        }
+    }
+
+    private static long countNodes(ParseElement element) {
+        long count = 1;
+        for (ParseElement child : element.getChildren()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,73 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+
+import java.util.Random;
+
+// Parse throughput on generated programs with random damage, the way the editor sends them mid-edit
+public class ParserRecoveryBenchmark {
+
+    static final int TARGET_SIZE = 256 * 1024;
+    static final int WARMUP = 10;
+    static final int RUNS = 20;
+    static final String[] DAMAGE = {")", "(", "+", "=", "{", "}", ",", "*", ":", ""};
+
+    public static void main(String[] args) {
+        String clean = buildCorpus();
+        run("clean", clean);
+        run("1% damaged", corrupt(clean, 0.01));
+        run("5% damaged", corrupt(clean, 0.05));
+    }
+
+    static void run(String label, String source) {
+        for (int i = 0; i < WARMUP; i++) {
+            new CatScriptParser().parse(new CatScriptTokenizer(source).getTokens());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            new CatScriptParser().parse(new CatScriptTokenizer(source).getTokens());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9 / RUNS;
+        System.out.printf("%s: %.2f ms per parse, %.1f MB/s%n", label, seconds * 1000,
+                source.length() / seconds / (1024 * 1024));
+    }
+
+    // replaces roughly this fraction of lines' first token with a stray piece of syntax
+    static String corrupt(String source, double rate) {
+        Random random = new Random(468);
+        StringBuilder sb = new StringBuilder();
+        for (String line : source.split("\n")) {
+            if (random.nextDouble() < rate * 10) {
+                int at = random.nextInt(line.length() + 1);
+                sb.append(line, 0, at).append(DAMAGE[random.nextInt(DAMAGE.length)]).append(line.substring(at));
+            } else {
+                sb.append(line);
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    static String buildCorpus() {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (sb.length() < TARGET_SIZE) {
+            sb.append("function f").append(i).append("(a : int, b : list<int>) : int {\n")
+                    .append("  var total = a * ").append(i).append(" + 12 - a / 3\n")
+                    .append("  for (x in b) {\n")
+                    .append("    if (x >= total) {\n")
+                    .append("      total = total + x\n")
+                    .append("    } else {\n")
+                    .append("      print(\"small \" + x)\n")
+                    .append("    }\n")
+                    .append("  }\n")
+                    .append("  return total\n")
+                    .append("}\n")
+                    .append("var v").append(i).append(" = [1, 2, ").append(i).append("]\n")
+                    .append("print(f").append(i).append("(").append(i).append(", v").append(i).append("))\n");
+            i++;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+
+import java.lang.management.ManagementFactory;
+
+// Tokenize, parse and verify time and allocation over generated programs that double in size.
+// Every column is divided by the source length, so a phase whose cost per KB climbs as the
+// input grows is super-linear.  Pass "strings" for a string-heavy mix, "corrupt" for inputs
+// with an error every few hundred lines
+public class ScalingBenchmark {
+
+    static final int SMALLEST = 250;
+    static final int DOUBLINGS = 6;
+    static final int WARMUP = 3;
+    static final int RUNS = 5;
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        boolean strings = args.length > 0 && args[0].equals("strings");
+        boolean corrupt = args.length > 0 && args[0].equals("corrupt");
+        System.out.printf("%9s %8s | %14s %14s %14s | %12s%n", "functions", "KB", "tokenize us/KB", "parse us/KB",
+                "verify us/KB", "alloc KB/KB");
+        // the first size would otherwise pay for the JIT
+        CorpusGenerator warmup = new CorpusGenerator(0);
+        warmup.setFunctions(SMALLEST << (DOUBLINGS / 2));
+        measure(warmup.generate());
+        double[] first = null;
+        double[] last = null;
+        for (int i = 0; i < DOUBLINGS; i++) {
+            int functions = SMALLEST << i;
+            CorpusGenerator generator = new CorpusGenerator(468);
+            generator.setFunctions(functions);
+            generator.setStringWeight(strings ? 0.8 : 0.3);
+            String source = generator.generate();
+            if (corrupt) {
+                source = generator.corrupt(source, functions / 20);
+            }
+            last = measure(source);
+            if (first == null) {
+                first = last;
+            }
+            double kb = source.length() / 1024.0;
+            System.out.printf("%9d %8.0f | %14.1f %14.1f %14.1f | %12.1f%n", functions, kb,
+                    last[0] / kb, last[1] / kb, last[2] / kb, last[3] / kb);
+        }
+        System.out.printf("largest against smallest, per KB: tokenize %.2fx, parse %.2fx, verify %.2fx%n",
+                last[0] / last[4] / (first[0] / first[4]), last[1] / last[4] / (first[1] / first[4]),
+                last[2] / last[4] / (first[2] / first[4]));
+    }
+
+    // microseconds to tokenize, parse and verify, kilobytes allocated and the source size in KB
+    static double[] measure(String source) {
+        long tokenize = 0;
+        long parse = 0;
+        long verify = 0;
+        long allocated = 0;
+        for (int i = 0; i < WARMUP + RUNS; i++) {
+            long bytes = ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+            long start = System.nanoTime();
+            TokenList tokens = new CatScriptTokenizer(source).getTokens();
+            long tokenized = System.nanoTime();
+            CatScriptProgram program = new CatScriptParser().parse(tokens);
+            long parsed = System.nanoTime();
+            try {
+                program.verify();
+            } catch (RuntimeException e) {
+                // corrupted inputs are expected to fail, the time to find out is what counts
+            }
+            long verified = System.nanoTime();
+            if (i >= WARMUP) {
+                tokenize += tokenized - start;
+                parse += parsed - tokenized;
+                verify += verified - parsed;
+                allocated += ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()) - bytes;
+            }
+        }
+        return new double[]{tokenize / 1e3 / RUNS, parse / 1e3 / RUNS, verify / 1e3 / RUNS,
+                allocated / 1024.0 / RUNS, source.length() / 1024.0};
+    }
+}
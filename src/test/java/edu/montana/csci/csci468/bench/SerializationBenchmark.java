@@ -0,0 +1,40 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Loading a serialized program against parsing and verifying its source
+public class SerializationBenchmark {
+
+    static final int WARMUP = 5;
+    static final int RUNS = 10;
+
+    public static void main(String[] args) throws IOException {
+        String source = ParallelParseBenchmark.buildCorpus();
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        program.verify();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        program.writeTo(new DataOutputStream(bytes));
+        byte[] serialized = bytes.toByteArray();
+        System.out.printf("%d KB of source, %d KB serialized%n", source.length() / 1024, serialized.length / 1024);
+
+        run("parse + verify", () -> new CatScriptParser().parse(source).verify());
+        run("load", () -> CatScriptProgram.readFrom(ByteBuffer.wrap(serialized)));
+    }
+
+    static void run(String label, Runnable load) {
+        for (int i = 0; i < WARMUP; i++) {
+            load.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            load.run();
+        }
+        System.out.printf("%s: %.2f ms%n", label, (System.nanoTime() - start) / 1e6 / RUNS);
+    }
+}
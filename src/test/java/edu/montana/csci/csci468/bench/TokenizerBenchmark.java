@@ -0,0 +1,102 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+
+import java.nio.charset.StandardCharsets;
+
+// Rough tokenizer throughput over a ~10 MB generated corpus, run with main() rather than as a test
+public class TokenizerBenchmark {
+
+    static final int TARGET_SIZE = 10 * 1024 * 1024;
+    static final int WARMUP = 5;
+    static final int RUNS = 10;
+
+    public static void main(String[] args) {
+        String corpus = buildCorpus();
+        System.out.println("Corpus: " + corpus.length() + " chars");
+        run("token objects", corpus, false);
+        run("compact tokens", corpus, true);
+        runParallel(corpus);
+        runBytes(corpus.getBytes(StandardCharsets.UTF_8));
+        relex(corpus.substring(0, corpus.indexOf('\n', corpus.length() / 5)));
+    }
+
+    static void runParallel(String corpus) {
+        for (int i = 0; i < WARMUP; i++) {
+            CatScriptTokenizer.parallel(corpus);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            CatScriptTokenizer.parallel(corpus);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9 / RUNS;
+        System.out.printf("parallel (%d cores): %.1f ms per pass, %.1f MB/s%n",
+                Runtime.getRuntime().availableProcessors(), seconds * 1000, corpus.length() / seconds / (1024 * 1024));
+    }
+
+    static void runBytes(byte[] corpus) {
+        for (int i = 0; i < WARMUP; i++) {
+            new CatScriptTokenizer(corpus);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            new CatScriptTokenizer(corpus);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9 / RUNS;
+        System.out.printf("utf-8 bytes: %.1f ms per pass, %.1f MB/s%n", seconds * 1000,
+                corpus.length / seconds / (1024 * 1024));
+    }
+
+    // one keystroke in the middle of the file, relexed incrementally and from scratch
+    static void relex(String source) {
+        System.out.println("Relex source: " + source.split("\n").length + " lines");
+        int offset = source.indexOf("total", source.length() / 2);
+        long incremental = 0;
+        long full = 0;
+        TokenList tokens = new CatScriptTokenizer(source).getTokens();
+        for (int i = 0; i < WARMUP + RUNS; i++) {
+            long start = System.nanoTime();
+            tokens = CatScriptTokenizer.relex(tokens, offset, 0, "x");
+            long middle = System.nanoTime();
+            new CatScriptTokenizer(source.substring(0, offset) + "x" + source.substring(offset));
+            long end = System.nanoTime();
+            source = source.substring(0, offset) + "x" + source.substring(offset);
+            if (i >= WARMUP) {
+                incremental += middle - start;
+                full += end - middle;
+            }
+        }
+        System.out.printf("relex: %.2f ms per keystroke, full tokenize: %.2f ms%n",
+                incremental / 1e6 / RUNS, full / 1e6 / RUNS);
+    }
+
+    static void run(String label, String corpus, boolean compact) {
+        for (int i = 0; i < WARMUP; i++) {
+            new CatScriptTokenizer(corpus, compact);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            new CatScriptTokenizer(corpus, compact);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9 / RUNS;
+        System.out.printf("%s: %.1f ms per pass, %.1f MB/s%n", label, seconds * 1000,
+                corpus.length() / seconds / (1024 * 1024));
+    }
+
+    static String buildCorpus() {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (sb.length() < TARGET_SIZE) {
+            sb.append("function f").append(i).append("(a : int, b : list<int>) : int {\n")
+                    .append("  // sum things up\n")
+                    .append("  var total = a * ").append(i).append(" + 12 - a / 3\n")
+                    .append("  for (x in b) { if (x >= total) { total = total + x } else { print(\"small \\\"\" + x) } }\n")
+                    .append("  /* checks */ if (total != a) { return total } \n")
+                    .append("  return a <= b[0] == true\n")
+                    .append("}\n");
+            i++;
+        }
+        return sb.toString();
+    }
+}
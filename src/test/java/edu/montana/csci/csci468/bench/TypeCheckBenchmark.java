@@ -0,0 +1,83 @@
+package edu.montana.csci.csci468.bench;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+// Verify time over a program made almost entirely of nested list types, where most of the
+// work is asking whether one type is assignable from another
+public class TypeCheckBenchmark {
+
+    static final int FUNCTIONS = 2000;
+    static final int WARMUP = 10;
+    static final int RUNS = 20;
+
+    public static void main(String[] args) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < FUNCTIONS; i++) {
+            source.append("function f").append(i)
+                    .append("(a : list<list<object>>, b : list<object>, c : list<list<list<int>>>) : list<list<object>> {\n")
+                    .append("  var d = [a, [b], [[1, 2], [3]], [[\"x\"]]]\n")
+                    .append("  var e = [c, [[[4]]], c]\n")
+                    .append("  return a\n")
+                    .append("}\n")
+                    .append("var v").append(i).append(" = f").append(i)
+                    .append("([[1], [2, 3]], [\"z\", 4], [[[5]]])\n")
+                    .append("var w").append(i).append(" = f").append(i)
+                    .append("(v").append(i).append(", [v").append(i).append("], [[[6, 7]], [[8]]])\n");
+        }
+        String program = source.toString();
+        for (int i = 0; i < WARMUP; i++) {
+            verify(program);
+        }
+        long total = 0;
+        for (int i = 0; i < RUNS; i++) {
+            total += verify(program);
+        }
+        System.out.printf("verify: %.2f ms per run%n", total / 1e6 / RUNS);
+
+        CatscriptType[] types = {CatscriptType.INT, CatscriptType.STRING, CatscriptType.BOOLEAN, CatscriptType.OBJECT,
+                CatscriptType.NULL, CatscriptType.VOID};
+        CatscriptType[] nested = new CatscriptType[types.length * 4];
+        for (int i = 0; i < nested.length; i++) {
+            CatscriptType type = types[i % types.length];
+            for (int depth = 0; depth < i / types.length; depth++) {
+                type = CatscriptType.getListType(type);
+            }
+            nested[i] = type;
+        }
+        for (int i = 0; i < WARMUP; i++) {
+            assignable(nested);
+        }
+        long start = System.nanoTime();
+        int accepted = 0;
+        for (int i = 0; i < RUNS; i++) {
+            accepted += assignable(nested);
+        }
+        System.out.printf("isAssignableFrom: %.2f ns per pair (%d)%n",
+                (System.nanoTime() - start) / (double) RUNS / PAIR_ROUNDS / nested.length / nested.length, accepted);
+    }
+
+    static final int PAIR_ROUNDS = 2000;
+
+    static int assignable(CatscriptType[] types) {
+        int accepted = 0;
+        for (int round = 0; round < PAIR_ROUNDS; round++) {
+            for (CatscriptType to : types) {
+                for (CatscriptType from : types) {
+                    if (to.isAssignableFrom(from)) {
+                        accepted++;
+                    }
+                }
+            }
+        }
+        return accepted;
+    }
+
+    static long verify(String source) {
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        long start = System.nanoTime();
+        program.verify();
+        return System.nanoTime() - start;
+    }
+}
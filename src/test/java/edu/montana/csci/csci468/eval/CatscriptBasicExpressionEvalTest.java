@@ -73,6 +73,19 @@ public class CatscriptBasicExpressionEvalTest extends CatscriptTestBase {
         assertEquals(true, evaluateExpression("true != 1"));
     }
 
+    @Test
+    void equalityComparesValues() {
+        assertEquals(false, evaluateExpression("1 == 2"));
+        assertEquals(true, evaluateExpression("1 + 1 == 2"));
+        assertEquals(true, evaluateExpression("\"a\" == \"a\""));
+        assertEquals(false, evaluateExpression("\"a\" != \"a\""));
+        assertEquals(true, evaluateExpression("\"a\" + \"b\" == \"ab\""));
+        assertEquals(true, evaluateExpression("\"a\" != \"b\""));
+        assertEquals(true, evaluateExpression("[1, 2] == [1, 2]"));
+        assertEquals(false, evaluateExpression("[1, 2] != [1, 2]"));
+        assertEquals(true, evaluateExpression("[1, 2] != [2, 1]"));
+    }
+
     @Test
     void parenthesizedExpressionEvaluatesProperly() {
         assertEquals(1, evaluateExpression("(1)"));
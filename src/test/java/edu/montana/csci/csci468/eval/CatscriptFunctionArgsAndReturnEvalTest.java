@@ -102,6 +102,24 @@ public class CatscriptFunctionArgsAndReturnEvalTest extends CatscriptTestBase
                 "print(foo())"));
     }
 
+    @Test
+    void eachCallHasItsOwnVariables() {
+        assertEquals("15\n", executeProgram("function sum(n : int) : int {\n" +
+                "  if (n <= 0) { return 0 }\n" +
+                "  var rest = sum(n - 1)\n" +
+                "  return n + rest\n" +
+                "}\n" +
+                "print(sum(5))"));
+    }
+
+    @Test
+    void functionsSeeGlobalsDeclaredBeforeThem() {
+        assertEquals("3\n3\n", executeProgram("var total = 1\n" +
+                "function add(x : int) { total = total + x\n print(total) }\n" +
+                "add(2)\n" +
+                "print(total)"));
+    }
+
 
 
 }
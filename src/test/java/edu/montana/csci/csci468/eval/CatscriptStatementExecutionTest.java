@@ -1,6 +1,8 @@
 package edu.montana.csci.csci468.eval;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
@@ -93,5 +95,26 @@ public class CatscriptStatementExecutionTest extends CatscriptTestBase {
         ));
     }
 
-
+    @Test
+    void verifiedProgramsNeverLookUpVariablesByName() {
+        CatScriptProgram program = new CatScriptParser().parse(
+                "var total = 0\n" +
+                "function add(x : int, ys : list<int>) : int {\n" +
+                "  var sum = x\n" +
+                "  for (y in ys) { sum = sum + y }\n" +
+                "  if (x > 0) { return add(x - 1, ys) + sum }\n" +
+                "  return sum\n" +
+                "}\n" +
+                "for (i in [1, 2]) { total = total + add(i, [i, 3]) }\n" +
+                "print(total)");
+        program.verify();
+        CatscriptRuntime runtime = new CatscriptRuntime() {
+            @Override
+            public Object getValue(String name) {
+                throw new AssertionError("looked up " + name + " by name");
+            }
+        };
+        program.execute(runtime);
+        assertEquals("27\n", runtime.getOutput());
+    }
 }
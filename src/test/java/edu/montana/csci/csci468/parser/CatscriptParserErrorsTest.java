@@ -1,11 +1,16 @@
 package edu.montana.csci.csci468.parser;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.PrintStatement;
+import edu.montana.csci.csci468.parser.statements.SyntaxErrorStatement;
+import edu.montana.csci.csci468.parser.statements.VariableStatement;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class CatscriptParserErrorsTest extends CatscriptTestBase {
@@ -16,6 +21,19 @@ public class CatscriptParserErrorsTest extends CatscriptTestBase {
         assertError(errors, 0, ErrorType.UNKNOWN_NAME, 1, 0);
     }
 
+    @Test
+    public void brokenStatementsRecoverAtTheNextStatement() {
+        CatScriptProgram program = new CatScriptParser().parse("print(1 + )\nvar x = 2\nprint(x)");
+        assertEquals(3, program.getStatements().size());
+        assertTrue(program.getStatements().get(0) instanceof SyntaxErrorStatement);
+        assertTrue(program.getStatements().get(1) instanceof VariableStatement);
+        assertTrue(program.getStatements().get(2) instanceof PrintStatement);
+
+        List<ParseError> errors = getErrors("function f() {\n  print(*)\n  print(1)\n}\nprint(2)");
+        assertEquals(1, errors.size());
+        assertError(errors, 0, ErrorType.UNEXPECTED_TOKEN, 2, 8);
+    }
+
     private void assertError(List<ParseError> errors, int errorIndex, ErrorType errorType) {
         assertError(errors, errorIndex, errorType, -1, -1);
     }
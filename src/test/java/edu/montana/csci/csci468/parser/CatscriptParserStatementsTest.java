@@ -3,8 +3,13 @@ package edu.montana.csci.csci468.parser;
 import edu.montana.csci.csci468.CatscriptTestBase;
 import edu.montana.csci.csci468.parser.expressions.*;
 import edu.montana.csci.csci468.parser.statements.*;
+import edu.montana.csci.csci468.tokenizer.Token;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class CatscriptParserStatementsTest extends CatscriptTestBase {
@@ -63,6 +68,17 @@ public class CatscriptParserStatementsTest extends CatscriptTestBase {
         assertEquals(1, expr.getTrueStatements().size());
     }
 
+    @Test
+    public void ifStatementsInElseBranchesParse() {
+        IfStatement elseIf = parseStatement("if(x > 10){ print(x) } else if(x > 5) { print(5) } else { print(0) }", false);
+        assertEquals(1, elseIf.getElseStatements().size());
+        assertEquals(1, ((IfStatement) elseIf.getElseStatements().get(0)).getElseStatements().size());
+        IfStatement nested = parseStatement("if(x > 10){ print(x) } else { if(x > 5) { print(5) } print(0) }", false);
+        assertFalse(nested.hasErrors());
+        assertEquals(2, nested.getElseStatements().size());
+        assertTrue(nested.getElseStatements().get(0) instanceof IfStatement);
+    }
+
     @Test
     public void elseStatementEnsuresClosingBrace() {
         IfStatement expr = parseStatement("if(x > 10){ print(x) } else { ", false);
@@ -194,4 +210,218 @@ public class CatscriptParserStatementsTest extends CatscriptTestBase {
         assertTrue(returnStmt.getExpression() instanceof IntegerLiteralExpression);
     }
 
+    @Test
+    public void programsAndExpressionsAreToldApart() {
+        CatScriptParser parser = new CatScriptParser();
+        assertTrue(parser.parse("1 + foo(2)").getExpression() instanceof AdditiveExpression);
+        assertTrue(parser.parse("foo(2)").getExpression() instanceof FunctionCallExpression);
+        CatScriptProgram assignment = parser.parse("x = 1");
+        assertNull(assignment.getExpression());
+        assertTrue(assignment.getStatements().get(0) instanceof AssignmentStatement);
+        CatScriptProgram calls = parser.parse("foo(2)\nprint(1)");
+        assertNull(calls.getExpression());
+        assertTrue(calls.getStatements().get(0) instanceof FunctionCallStatement);
+        assertTrue(calls.getStatements().get(1) instanceof PrintStatement);
+    }
+
+    @Test
+    public void reparsingAnEditMatchesParsingAgain() {
+        String src = "var x = 10\nfunction foo(a : int) : int {\n  return a * 2\n}\n" +
+                "print(foo(x) >= 3)\nif (x > 1) { print(\"a b\") }\nfoo(1)\nx = x + 1\nprint(x)";
+        String[] pieces = {"", "y", " ", "\n", "\"", "(", ")", "{", "}", "+ 1", "print(2)\n", "var z = 3\n"};
+        Random random = new Random(468);
+        CatScriptParser parser = new CatScriptParser();
+        CatScriptProgram program = parser.parse(src);
+        for (int i = 0; i < 1000; i++) {
+            int offset = random.nextInt(src.length() + 1);
+            int removed = random.nextInt(Math.min(4, src.length() - offset) + 1);
+            String inserted = pieces[random.nextInt(pieces.length)];
+            src = src.substring(0, offset) + inserted + src.substring(offset + removed);
+            program = parser.reparse(program, offset, removed, inserted);
+            CatScriptProgram expected = new CatScriptParser().parse(src);
+            assertEquals(verifyErrors(expected), verifyErrors(program), src);
+            assertEquals(describe(expected), describe(program), src);
+        }
+    }
+
+    @Test
+    public void incrementalVerifyMatchesVerifyingAgain() {
+        String src = "var x = 10\nfunction foo(a : int) : int {\n  return a * 2\n}\n" +
+                "function bar(s : string) {\n  print(foo(x) + s)\n}\n" +
+                "var y = foo(1)\nfunction baz() : bool {\n  bar(\"b\")\n  return y > x\n}\nprint(baz())";
+        String[] pieces = {"", "y", " ", "\n", "\"", "(", ")", "{", "}", "+ 1", "int", "string", "print(2)\n",
+                "var z = 3\n", "var x = \"\"\n"};
+        Random random = new Random(468);
+        CatScriptParser parser = new CatScriptParser();
+        IncrementalVerifier verifier = new IncrementalVerifier();
+        CatScriptProgram program = parser.parse(src);
+        for (int i = 0; i < 1000; i++) {
+            int offset = random.nextInt(src.length() + 1);
+            int removed = random.nextInt(Math.min(4, src.length() - offset) + 1);
+            String inserted = pieces[random.nextInt(pieces.length)];
+            src = src.substring(0, offset) + inserted + src.substring(offset + removed);
+            program = parser.reparse(program, offset, removed, inserted);
+            CatScriptProgram expected = new CatScriptParser().parse(src);
+            assertEquals(verifyErrors(expected), verifyErrors(verifier, program), src);
+            assertEquals(describe(expected), describe(program), src);
+        }
+    }
+
+    @Test
+    public void incrementalVerifyOnlyChecksWhatAnEditReaches() {
+        String src = "var v = 0\n" +
+                "function f(a : int) : int { return a }\n" +
+                "function g() { print(f(1)) }\n" +
+                "function h() { print(2) }\n";
+        CatScriptParser parser = new CatScriptParser();
+        IncrementalVerifier verifier = new IncrementalVerifier();
+        CatScriptProgram program = parser.parse(src);
+        verifier.verify(program);
+        assertEquals(4, verifier.getCheckedStatements());
+
+        program = parser.reparse(program, src.indexOf("2"), 1, "3");
+        verifier.verify(program);
+        assertEquals(1, verifier.getCheckedStatements());
+        assertEquals(3, verifier.getKeptStatements());
+
+        program = parser.reparse(program, src.indexOf(": int {") + 2, 3, "object");
+        verifier.verify(program);
+        assertEquals(2, verifier.getCheckedStatements());
+        assertEquals(2, verifier.getKeptStatements());
+    }
+
+    @Test
+    public void reparsingKeepsUntouchedStatements() {
+        String src = "var x = 1\nprint(x)\nprint(2)";
+        CatScriptParser parser = new CatScriptParser();
+        CatScriptProgram program = parser.parse(src);
+        Statement first = program.getStatements().get(0);
+        Statement last = program.getStatements().get(2);
+        CatScriptProgram edited = parser.reparse(program, 17, 0, " + 1");
+        assertSame(first, edited.getStatements().get(0));
+        assertSame(last, edited.getStatements().get(2));
+        assertTrue(((PrintStatement) edited.getStatements().get(1)).getExpression() instanceof AdditiveExpression);
+        assertEquals(23, last.getStart().getStart());
+        assertEquals(3, last.getStart().getLine());
+    }
+
+    @Test
+    public void reparsingKeepsStatementsAfterALeadingCall() {
+        StringBuilder src = new StringBuilder("f(0)\n");
+        for (int i = 1; i < 52; i++) {
+            src.append("print(").append(i).append(")\n");
+        }
+        CatScriptParser parser = new CatScriptParser();
+        CatScriptProgram program = parser.parse(src.toString());
+        Statement first = program.getStatements().get(0);
+        Statement fiftieth = program.getStatements().get(50);
+        CatScriptProgram edited = parser.reparse(program, src.lastIndexOf("51"), 2, "52");
+        assertEquals(52, edited.getStatements().size());
+        assertSame(first, edited.getStatements().get(0));
+        assertSame(fiftieth, edited.getStatements().get(50));
+        assertEquals(describe(new CatScriptParser().parse(src.toString().replace("51", "52"))), describe(edited));
+    }
+
+    @Test
+    public void reparsingLeavesSharedProgramsAlone() {
+        String src = "var x = 1\nprint(x)\nprint(2)";
+        CatScriptProgram program = new ProgramCache(4, Duration.ofMinutes(1)).lookup(src).getProgram();
+        String before = describe(program);
+        Token last = program.getStatements().get(2).getStart();
+        assertThrows(IllegalArgumentException.class, () -> new CatScriptParser().reparse(program, 17, 0, " + 1"));
+        assertEquals(before, describe(program));
+        assertEquals(19, last.getStart());
+        assertEquals("print", last.getValue().toString());
+    }
+
+    @Test
+    public void reparsingConsumesThePreviousProgram() {
+        CatScriptParser parser = new CatScriptParser();
+        CatScriptProgram program = parser.parse("var x = 1\nprint(x)\nprint(2)");
+        parser.reparse(program, 17, 0, " + 1");
+        assertTrue(program.isConsumed());
+        assertThrows(IllegalStateException.class, () -> parser.reparse(program, 17, 0, " + 1"));
+    }
+
+    @Test
+    public void parallelParsingMatchesSequential() {
+        String[] damage = {"", "", "", "}", "{", "(", "print(", "function g() {"};
+        Random random = new Random(468);
+        StringBuilder src = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            src.append("function f").append(i).append("(a : int) : int {\n")
+                    .append("  if (a > ").append(i).append(") { return a }\n")
+                    .append(damage[random.nextInt(damage.length)])
+                    .append("  return f").append(i).append("(a + 1)\n}\n")
+                    .append("print(f").append(i).append("(1))\n");
+        }
+        CatScriptProgram expected = new CatScriptParser().parse(src.toString());
+        CatScriptProgram actual = new CatScriptParser().parseParallel(src.toString());
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(verifyErrors(expected), verifyErrors(actual));
+    }
+
+    @Test
+    public void expressionsAreToldApartWithoutReadingAgain() {
+        CatScriptParser parser = new CatScriptParser();
+        assertTrue(parser.parse(new StringReader("1 + 2")).getExpression() instanceof AdditiveExpression);
+        CatScriptProgram program = parser.parse(new StringReader("foo(1)\nprint(2)"));
+        assertTrue(program.getStatements().get(0) instanceof FunctionCallStatement);
+        assertTrue(program.getStatements().get(1) instanceof PrintStatement);
+        program = parser.parse("1 + 2 print(3)");
+        assertTrue(program.getStatements().get(0) instanceof SyntaxErrorStatement);
+        assertTrue(program.getStatements().get(1) instanceof PrintStatement);
+    }
+
+    @Test
+    public void pipelinedParsingMatchesSequential() {
+        StringBuilder src = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            src.append("function f").append(i).append("(a : int) : int {\n")
+                    .append("  if (a > ").append(i).append(") { return a } else { print(\"a\" + a) }\n")
+                    .append("  return f").append(i).append("(a + 1)\n}\n")
+                    .append(i % 1000 == 0 ? "print(}\n" : "print(f" + i + "(1))\n");
+        }
+        CatScriptProgram expected = new CatScriptParser().parse(src.toString());
+        CatScriptProgram actual = new CatScriptParser().parsePipelined(src.toString());
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(verifyErrors(expected), verifyErrors(actual));
+        assertTrue(new CatScriptParser().parsePipelined("1 + 2").getExpression() instanceof AdditiveExpression);
+    }
+
+    private String describe(ParseElement element) {
+        StringBuilder sb = new StringBuilder(element.getClass().getSimpleName());
+        Token start = element.getStart();
+        if (start != null) {
+            sb.append('@').append(start.getStart()).append(':').append(start.getLine())
+                    .append(':').append(start.getLineOffset());
+        }
+        for (ParseError error : element.getErrors()) {
+            sb.append(" !").append(error.getErrorType());
+        }
+        sb.append('[');
+        for (ParseElement child : element.getChildren()) {
+            sb.append(describe(child)).append(' ');
+        }
+        return sb.append(']').toString();
+    }
+
+    private String verifyErrors(IncrementalVerifier verifier, CatScriptProgram program) {
+        try {
+            verifier.verify(program);
+            return "";
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+    }
+
+    private String verifyErrors(CatScriptProgram program) {
+        try {
+            program.verify();
+            return "";
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+    }
+
 }
@@ -1,13 +1,17 @@
 package edu.montana.csci.csci468.parser;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
-import edu.montana.csci.csci468.parser.statements.PrintStatement;
-import edu.montana.csci.csci468.parser.statements.Statement;
-import edu.montana.csci.csci468.parser.statements.VariableStatement;
+import edu.montana.csci.csci468.parser.expressions.IdentifierExpression;
+import edu.montana.csci.csci468.parser.expressions.ListLiteralExpression;
+import edu.montana.csci.csci468.parser.statements.*;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class CatscriptParserSymbolCheckingTest extends CatscriptTestBase {
 
@@ -54,6 +58,67 @@ public class CatscriptParserSymbolCheckingTest extends CatscriptTestBase {
         assertNotNull(statement);
     }
 
+    @Test
+    void variablesResolveToFrameSlots() {
+        CatScriptProgram program = new CatScriptParser().parse("var x = 1\n" +
+                "function foo(a : int) { var b = a\n for(c in [x]){ b = c } }\n" +
+                "var y = x");
+        program.verify();
+        FunctionDefinitionStatement foo = (FunctionDefinitionStatement) program.getStatements().get(1);
+        assertEquals(3, foo.getFrameSize());
+        VariableStatement b = (VariableStatement) foo.getBody().get(0);
+        assertEquals(SymbolTable.LOCAL, b.getDepth());
+        assertEquals(1, b.getSlot());
+        IdentifierExpression a = (IdentifierExpression) b.getExpression();
+        assertEquals(0, a.getSlot());
+        ForStatement loop = (ForStatement) foo.getBody().get(1);
+        assertEquals(2, loop.getSlot());
+        IdentifierExpression x = (IdentifierExpression) ((ListLiteralExpression) loop.getExpression()).getValues().get(0);
+        assertEquals(SymbolTable.GLOBAL, x.getDepth());
+        assertEquals(0, x.getSlot());
+        AssignmentStatement assignment = (AssignmentStatement) loop.getBody().get(0);
+        assertEquals(1, assignment.getSlot());
+        assertEquals(1, ((VariableStatement) program.getStatements().get(2)).getSlot());
+    }
+
+    @Test
+    void parallelVerifyResolvesLikeSequential() {
+        CatScriptProgram program = new CatScriptParser().parse("var x = 1\n" +
+                "function foo(a : int) { var b = a\n for(c in [x]){ b = c } }\n" +
+                "var y = x\n" +
+                "function bar() : int { return y }");
+        program.verifyInParallel();
+        FunctionDefinitionStatement foo = (FunctionDefinitionStatement) program.getStatements().get(1);
+        assertEquals(3, foo.getFrameSize());
+        ForStatement loop = (ForStatement) foo.getBody().get(1);
+        IdentifierExpression x = (IdentifierExpression) ((ListLiteralExpression) loop.getExpression()).getValues().get(0);
+        assertEquals(SymbolTable.GLOBAL, x.getDepth());
+        assertEquals(0, x.getSlot());
+        FunctionDefinitionStatement bar = (FunctionDefinitionStatement) program.getStatements().get(3);
+        IdentifierExpression y = (IdentifierExpression) ((ReturnStatement) bar.getBody().get(0)).getExpression();
+        assertEquals(1, y.getSlot());
+    }
+
+    @Test
+    void parallelVerifyReportsErrorsInSourceOrder() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            source.append("function f").append(i).append("() { print(later) }\n")
+                    .append("var later").append(i).append(" : int = \"").append(i).append("\"\n");
+        }
+        source.append("var later = 1\n");
+        List<String> sequential = errorsOf(source.toString(), false);
+        assertEquals(100, sequential.size());
+        assertEquals(sequential, errorsOf(source.toString(), true));
+    }
+
+    private List<String> errorsOf(String source, boolean parallel) {
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        ParseErrorException exception = assertThrows(ParseErrorException.class,
+                parallel ? program::verifyInParallel : program::verify);
+        return exception.getErrors().stream().map(ParseError::getFullMessage).collect(Collectors.toList());
+    }
+
     @Test
     void ifStatementBranchesDoNotConflic() {
         Statement statement = parseStatement("if(true){ var x = 10 } else { var x = true }\n");
@@ -7,6 +7,13 @@ import edu.montana.csci.csci468.parser.statements.PrintStatement;
 import edu.montana.csci.csci468.parser.statements.Statement;
 import edu.montana.csci.csci468.parser.statements.VariableStatement;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class CatscriptParserTypeCheckingTest extends CatscriptTestBase {
@@ -72,10 +79,63 @@ public class CatscriptParserTypeCheckingTest extends CatscriptTestBase {
         assertEquals(ErrorType.INCOMPATIBLE_TYPES, getParseError("1 + true"));
     }
 
+    @Test
+    void longAdditiveChainsAreTyped() {
+        StringBuilder ints = new StringBuilder("0");
+        for (int i = 1; i <= 2000; i++) {
+            ints.append(i % 2 == 0 ? " + " : " - ").append(i);
+        }
+        assertEquals(CatscriptType.INT, parseExpression(ints.toString()).getType());
+        assertEquals(CatscriptType.STRING, parseExpression(ints + " + \"s\"").getType());
+        assertEquals(CatscriptType.STRING, parseExpression("\"s\" + " + ints).getType());
+    }
+
     @Test
     void comparativeTypeError() {
         assertEquals(ErrorType.INCOMPATIBLE_TYPES, getParseError("1 > true"));
     }
 
+    @Test
+    void listTypesAreAssignableByComponent() {
+        CatscriptType ints = CatscriptType.getListType(CatscriptType.INT);
+        CatscriptType objects = CatscriptType.getListType(CatscriptType.OBJECT);
+        assertTrue(objects.isAssignableFrom(ints));
+        assertFalse(ints.isAssignableFrom(objects));
+        assertTrue(CatscriptType.OBJECT.isAssignableFrom(ints));
+        assertFalse(CatscriptType.INT.isAssignableFrom(ints));
+        assertTrue(ints.isAssignableFrom(CatscriptType.NULL));
+        assertFalse(CatscriptType.OBJECT.isAssignableFrom(CatscriptType.VOID));
+        assertTrue(CatscriptType.getListType(objects).isAssignableFrom(CatscriptType.getListType(ints)));
+        assertFalse(CatscriptType.getListType(ints).isAssignableFrom(ints));
+    }
+
+    @Test
+    void listTypesAreTheSameAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<CatscriptType>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> {
+                    List<CatscriptType> types = new ArrayList<>();
+                    CatscriptType type = CatscriptType.STRING;
+                    for (int depth = 0; depth < 100; depth++) {
+                        type = CatscriptType.getListType(type);
+                        types.add(type);
+                    }
+                    return types;
+                }));
+            }
+            List<CatscriptType> first = results.get(0).get();
+            for (Future<List<CatscriptType>> result : results) {
+                List<CatscriptType> types = result.get();
+                for (int depth = 0; depth < types.size(); depth++) {
+                    assertSame(first.get(depth), types.get(depth));
+                    assertTrue(types.get(depth).isAssignableFrom(first.get(depth)));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 
 }
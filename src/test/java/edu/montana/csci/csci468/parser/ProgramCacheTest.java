@@ -0,0 +1,105 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgramCacheTest {
+
+    private long now = 0;
+
+    @Test
+    public void identicalSourceIsParsedOnce() {
+        ProgramCache cache = new ProgramCache(10, Duration.ofMinutes(1));
+        CatScriptProgram first = cache.lookup("print(1)").getProgram();
+        assertSame(first, cache.lookup("print(1)").getProgram());
+        assertNotSame(first, cache.lookup("print(2)").getProgram());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void verificationErrorsAreCached() {
+        ProgramCache cache = new ProgramCache(10, Duration.ofMinutes(1));
+        ProgramCache.Entry entry = cache.lookup("print(x)");
+        assertTrue(entry.hasErrors());
+        assertSame(entry.getErrors(), cache.lookup("print(x)").getErrors());
+        assertFalse(cache.lookup("var x = 1\nprint(x)").hasErrors());
+    }
+
+    @Test
+    public void programsWhoseVerifyThrowsAreStillCached() {
+        ProgramCache cache = new ProgramCache(10, Duration.ofMinutes(1));
+        ProgramCache.Entry entry = cache.lookup("foo(1)\n");
+        assertTrue(entry.hasFailed());
+        assertNotNull(entry.getProgram());
+        assertSame(entry, cache.lookup("foo(1)\n"));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void runningACachedProgramLeavesItUnchanged() {
+        ProgramCache cache = new ProgramCache(10, Duration.ofMinutes(1));
+        CatScriptProgram program = cache.lookup("var x = 1\nprint(x + 1)").getProgram();
+        for (int i = 0; i < 2; i++) {
+            CatscriptRuntime runtime = new CatscriptRuntime();
+            program.execute(runtime);
+            assertEquals("2\n", runtime.getOutput());
+        }
+        assertEquals("", program.getOutput());
+        assertThrows(IllegalStateException.class, program::execute);
+    }
+
+    @Test
+    public void concurrentLookupsParseOnce() throws InterruptedException {
+        ProgramCache cache = new ProgramCache(10, Duration.ofMinutes(1));
+        CatScriptProgram[] programs = new CatScriptProgram[8];
+        Thread[] threads = new Thread[programs.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> programs[index] = cache.lookup("print(1)").getProgram());
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (CatScriptProgram program : programs) {
+            assertSame(programs[0], program);
+        }
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void leastRecentlyUsedProgramsAreEvicted() {
+        ProgramCache cache = new ProgramCache(2, Duration.ofMinutes(1), () -> now);
+        CatScriptProgram one = cache.lookup("1").getProgram();
+        now++;
+        cache.lookup("2");
+        now++;
+        cache.lookup("1");
+        now++;
+        cache.lookup("3");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertSame(one, cache.lookup("1").getProgram());
+        assertEquals(3, cache.getMisses());
+        cache.lookup("2");
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void expiredProgramsAreParsedAgain() {
+        ProgramCache cache = new ProgramCache(10, Duration.ofNanos(100), () -> now);
+        CatScriptProgram first = cache.lookup("1").getProgram();
+        now = 50;
+        assertSame(first, cache.lookup("1").getProgram());
+        now = 200;
+        assertNotSame(first, cache.lookup("1").getProgram());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getMisses());
+    }
+}
@@ -0,0 +1,79 @@
+package edu.montana.csci.csci468.parser;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.expressions.AdditiveExpression;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.parser.statements.VariableStatement;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgramSerializationTest {
+
+    @Test
+    public void loadedProgramsRunLikeParsedOnes() throws IOException {
+        String[] programs = {
+                "1 + 2 * -3",
+                "\"h\u00e9llo \" + 42",
+                "var x = 1\nprint(x)\nx = x + -2\nprint(x)",
+                "var l : list<int> = [1, 2, 3]\nfor (i in l) { if (i > 1) { print(i) } else { print(-i) } }",
+                "function fib(n : int) : int {\n  if (n <= 1) { return n }\n  return fib(n - 1) + fib(n - 2)\n}\nprint(fib(10))",
+                "function greet(name : string) {\n  print(\"hi \" + name)\n  return\n}\ngreet(\"cat\")\nprint(null == null)",
+                "var b = not (1 == 2)\nvar o : object = [[true], [false]]\nprint(b)\nprint(o)"
+        };
+        for (String source : programs) {
+            CatScriptProgram parsed = new CatScriptParser().parse(source);
+            parsed.verify();
+            CatScriptProgram loaded = roundTrip(parsed);
+            assertEquals(run(parsed), run(loaded), source);
+        }
+    }
+
+    @Test
+    public void resolvedTypesAreKept() throws IOException {
+        CatScriptProgram parsed = new CatScriptParser().parse(
+                "function f(a : list<string>, b) : int { return 1 }\nvar x = [f([\"a\"], 1)]");
+        parsed.verify();
+        CatScriptProgram loaded = roundTrip(parsed);
+        FunctionDefinitionStatement function = loaded.getFunction("f");
+        assertEquals(CatscriptType.INT, function.getType());
+        assertEquals(CatscriptType.getListType(CatscriptType.STRING), function.getParameterType(0));
+        assertEquals(CatscriptType.OBJECT, function.getParameterType(1));
+        VariableStatement variable = (VariableStatement) loaded.getStatements().get(1);
+        assertEquals(CatscriptType.getListType(CatscriptType.INT), variable.getType());
+        assertEquals(CatscriptType.getListType(CatscriptType.INT), variable.getExpression().getType());
+        assertTrue(roundTrip(verified("1 + 2")).getExpression() instanceof AdditiveExpression);
+    }
+
+    @Test
+    public void programsWithErrorsAreNotWritten() {
+        CatScriptProgram program = new CatScriptParser().parse("print(x)");
+        assertThrows(ParseErrorException.class, program::verify);
+        assertThrows(IllegalStateException.class, () -> roundTrip(program));
+        assertThrows(IllegalArgumentException.class, () -> CatScriptProgram.readFrom(ByteBuffer.wrap(new byte[8])));
+    }
+
+    private static CatScriptProgram verified(String source) {
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        program.verify();
+        return program;
+    }
+
+    private static CatScriptProgram roundTrip(CatScriptProgram program) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        program.writeTo(new DataOutputStream(bytes));
+        return CatScriptProgram.readFrom(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    private static String run(CatScriptProgram program) {
+        CatscriptRuntime runtime = new CatscriptRuntime();
+        program.execute(runtime);
+        return runtime.getOutput();
+    }
+}
@@ -2,8 +2,17 @@ package edu.montana.csci.csci468.tokenizer;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -90,6 +99,20 @@ public class CatScriptTokenizerTest extends CatscriptTestBase {
                 SLASH, SLASH, EOF);
     }
 
+    @Test
+    public void blockCommentsAreIgnored(){
+        assertTokensAre("1 /* 2 * 3\n / 4 */ + 5", INTEGER, PLUS, INTEGER, EOF);
+        assertTokensAre("1 /* 2", INTEGER, ERROR, EOF);
+        List<Token> tokens = getTokensAsList("/* a\nb */ foo");
+        assertEquals(2, tokens.get(0).getLine());
+        assertEquals(5, tokens.get(0).getLineOffset());
+    }
+
+    @Test
+    public void loneBangIsAnError(){
+        assertTokensAre("! !=", ERROR, BANG_EQUAL, EOF);
+    }
+
     @Test
     public void compoundTokensTokenizeProperly() {
         assertTokensAre("1+2", INTEGER, PLUS, INTEGER, EOF);
@@ -147,4 +170,229 @@ public class CatScriptTokenizerTest extends CatscriptTestBase {
     }
 
 
+    @Test
+    public void streamingTokenizerMatchesStringTokenizer() {
+        StringBuilder src = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            src.append("var x").append(i).append(" = \"str").append(i).append("\" // comment\n");
+            src.append("print(x").append(i).append(" + ").append(i).append(")\n");
+        }
+        List<Token> expected = getTokensAsList(src.toString());
+        TokenList streamed = new CatScriptTokenizer(new StringReader(src.toString())).getTokens();
+        for (Token token : expected) {
+            Token actual = streamed.consumeToken();
+            assertEquals(token.toString(), actual.toString());
+        }
+        assertFalse(streamed.hasMoreTokens());
+        assertEquals("print(x4999 + 4999)", streamed.lastToken().getLineContent());
+        // only the window's lines are indexed, though all of them are counted
+        assertEquals(10000, streamed.lastToken().getLine());
+        assertTrue(streamed.tokenizer.lineStarts.length <= 1024, streamed.tokenizer.lineStarts.length + " line starts");
+        assertEquals(10000, streamed.tokenizer.locate(streamed.lastToken().getStart()).getLine());
+    }
+
+    @Test
+    public void streamingReleasesInputWithoutNewlines() {
+        StringBuilder src = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            src.append("x").append(i).append(" + ");
+        }
+        src.append("1");
+        ReaderSource source = new ReaderSource(new StringReader(src.toString()));
+        for (int i = 0; i < src.length(); i++) {
+            assertEquals(src.charAt(i), source.charAt(i));
+            if (i % 1000 == 0) {
+                source.release(i - 100);
+            }
+        }
+        assertTrue(source.isReleased(src.length() / 2));
+        assertThrows(IllegalStateException.class, () -> source.substring(0, 10));
+        assertEquals(src.substring(src.length() - 50), source.substring(src.length() - 50, src.length()));
+    }
+
+    @Test
+    public void byteBufferTokenizationStartsAtThePosition() {
+        ByteBuffer buffer = ByteBuffer.wrap("junk\nprint(\"h\u00e9\")".getBytes(StandardCharsets.UTF_8));
+        buffer.position(5);
+        List<Token> tokens = new CatScriptTokenizer(buffer).getTokens().stream().collect(Collectors.toList());
+        assertEquals(PRINT, tokens.get(0).getType());
+        assertEquals(0, tokens.get(0).getStart());
+        assertEquals(1, tokens.get(0).getLine());
+        assertEquals("h\u00e9", tokens.get(2).getStringValue());
+        assertEquals("print(\"h\u00e9\")", tokens.get(0).getLineContent());
+        assertEquals(5, buffer.position());
+    }
+
+    @Test
+    public void byteBufferValuesAreDecoded() {
+        byte[] source = "var s = \"h\u00e9llo\"".getBytes(StandardCharsets.UTF_8);
+        List<Token> tokens = new CatScriptTokenizer(source).getTokens().stream().collect(Collectors.toList());
+        CharSequence value = tokens.get(3).getValue();
+        assertEquals(5, value.length());
+        assertEquals('\u00e9', value.charAt(1));
+        assertEquals("llo", value.subSequence(2, 5).toString());
+        assertEquals("var", tokens.get(0).getValue().toString());
+    }
+
+    @Test
+    public void mappedFileTokenization(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("test.cat");
+        Files.write(file, "var x = \"h\u00e9llo\"\nprint(x)".getBytes(StandardCharsets.UTF_8));
+        List<Token> tokens = CatScriptTokenizer.mapFile(file).getTokens().stream().collect(Collectors.toList());
+        assertEquals("h\u00e9llo", tokens.get(3).getStringValue());
+        assertEquals(9, tokens.get(3).getStart());
+        assertEquals(16, tokens.get(3).getEnd());
+        assertEquals(PRINT, tokens.get(4).getType());
+        assertEquals(17, tokens.get(4).getStart());
+        assertEquals("print(x)", tokens.get(4).getLineContent());
+    }
+
+    @Test
+    public void utf8BytesTokenizeLikeTheDecodedString() {
+        String src = "var \u00e9t\u00e9 = \"\u2603 snow\"\nprint(\"\ud83d\ude00\" + x) \u00e9";
+        List<Token> fromString = getTokensAsList(src);
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer(src.getBytes(StandardCharsets.UTF_8));
+        List<Token> fromBytes = tokenizer.getTokens().stream().collect(Collectors.toList());
+        assertEquals(fromString.size(), fromBytes.size());
+        for (int i = 0; i < fromString.size(); i++) {
+            assertEquals(fromString.get(i).getType(), fromBytes.get(i).getType());
+            assertEquals(fromString.get(i).getStringValue(), fromBytes.get(i).getStringValue());
+            assertEquals(fromString.get(i).getLine(), fromBytes.get(i).getLine());
+            assertEquals(fromString.get(i).getLineOffset(), fromBytes.get(i).getLineOffset());
+            assertEquals(fromString.get(i).getLineContent(), fromBytes.get(i).getLineContent());
+        }
+        Token last = fromBytes.get(fromBytes.size() - 2);
+        assertEquals("<Unexpected Token: [\u00e9]>", last.getStringValue());
+        assertEquals(last.getLineOffset(), tokenizer.locate(last.getStart()).getColumn());
+    }
+
+    @Test
+    public void integerValuesAreScannedWithTheToken() {
+        assertTokensAre("2147483647 2147483648 0", INTEGER, ERROR, INTEGER, EOF);
+        List<Token> tokens = getTokensAsList("2147483647 42");
+        assertEquals(Integer.MAX_VALUE, tokens.get(0).getIntValue());
+        assertEquals(42, tokens.get(1).getIntValue());
+        List<Token> compact = new CatScriptTokenizer("2147483647 42", true).getTokens().stream().collect(Collectors.toList());
+        assertEquals(Integer.MAX_VALUE, compact.get(0).getIntValue());
+        assertEquals(42, compact.get(1).getIntValue());
+    }
+
+    @Test
+    public void compactTokenListMatchesTokenList() {
+        String src = "function foo(x : int) : int {\n  return x * 2 // double\n}\nprint(foo(21) >= \"a\") ! @";
+        List<Token> expected = getTokensAsList(src);
+        List<Token> compact = new CatScriptTokenizer(src, true).getTokens().stream().collect(Collectors.toList());
+        assertEquals(expected.size(), compact.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), compact.get(i).toString());
+            assertEquals(expected.get(i).getLineContent(), compact.get(i).getLineContent());
+        }
+        TokenList tokens = new CatScriptTokenizer(src, true).getTokens();
+        assertSame(tokens.tokenAt(3), tokens.tokenAt(3));
+        assertSame(tokens.tokenAt(3).getStringValue(), tokens.tokenAt(3).getStringValue());
+    }
+
+    @Test
+    public void repeatedIdentifiersShareOneValue() {
+        List<Token> tokens = getTokensAsList("var count = 1\ncount = count + \"count\"");
+        assertSame(tokens.get(1).getStringValue(), tokens.get(4).getStringValue());
+        assertSame(tokens.get(4).getStringValue(), tokens.get(6).getStringValue());
+        assertEquals("count", tokens.get(8).getStringValue());
+        assertEquals("1", tokens.get(3).getValue().toString());
+    }
+
+    @Test
+    public void relexingAnEditMatchesTokenizingAgain() {
+        String src = "var x = 10\nfunction foo(a : int) : int {\n  return a * 2 // double\n}\n" +
+                "print(foo(x) >= \"a b\")\n/* done */ print(\"end\")";
+        String[] pieces = {"", "y", " ", "\n", "\"", "/*", "*/", "//", "=", "12", "abc", "\n}\n", "!"};
+        Random random = new Random(468);
+        TokenList tokens = new CatScriptTokenizer(src).getTokens();
+        for (int i = 0; i < 2000; i++) {
+            int offset = random.nextInt(src.length() + 1);
+            int removed = random.nextInt(Math.min(4, src.length() - offset) + 1);
+            String inserted = pieces[random.nextInt(pieces.length)];
+            src = src.substring(0, offset) + inserted + src.substring(offset + removed);
+            tokens = CatScriptTokenizer.relex(tokens, offset, removed, inserted);
+            List<Token> expected = getTokensAsList(src);
+            List<Token> actual = tokens.stream().collect(Collectors.toList());
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected.get(expected.size() - 1).getLineContent(), actual.get(actual.size() - 1).getLineContent());
+            int probe = random.nextInt(src.length() + 1);
+            SourceLocation expectedLocation = new CatScriptTokenizer(src).locate(probe);
+            SourceLocation actualLocation = tokens.tokenizer.locate(probe);
+            assertEquals(expectedLocation.toString(), actualLocation.toString());
+            assertEquals(expectedLocation.getLineContent(), actualLocation.getLineContent());
+        }
+    }
+
+    @Test
+    public void offsetsAreLocatedByLine() {
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer("var x = 1\n\nprint(\"a\nb\")\n");
+        SourceLocation location = tokenizer.locate(17);
+        assertEquals(3, location.getLine());
+        assertEquals(6, location.getColumn());
+        assertEquals("print(\"a", location.getLineContent());
+        assertEquals("", tokenizer.locate(10).getLineContent());
+        assertEquals("b\")", tokenizer.getLineContent(4));
+        assertEquals("", tokenizer.getLineContent(5));
+        List<Token> tokens = tokenizer.getTokens().stream().collect(Collectors.toList());
+        assertEquals("4:2", tokens.get(6).getEndLocation().toString());
+    }
+
+    @Test
+    public void parallelTokenizationMatchesSequential() {
+        StringBuilder src = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            src.append("var x").append(i).append(" = \"str\\\" //").append(i).append("\n\" // \"comment\n")
+                    .append("/* \"block\n").append(i).append(" */ print(x").append(i).append(" >= ").append(i).append(")\n\n");
+        }
+        src.append("print(\"unterminated\n");
+        CatScriptTokenizer sequential = new CatScriptTokenizer(src.toString());
+        CatScriptTokenizer parallel = CatScriptTokenizer.parallel(src.toString(), 1000);
+        List<Token> expected = sequential.getTokens().stream().collect(Collectors.toList());
+        List<Token> actual = parallel.getTokens().stream().collect(Collectors.toList());
+        assertEquals(expected.toString(), actual.toString());
+        for (int offset = 0; offset < src.length(); offset += 997) {
+            assertEquals(sequential.locate(offset).toString(), parallel.locate(offset).toString());
+            assertEquals(sequential.locate(offset).getLineContent(), parallel.locate(offset).getLineContent());
+        }
+    }
+
+    @Test
+    public void pipelinedTokenizationMatchesSequential() {
+        StringBuilder src = new StringBuilder();
+        // enough tokens to go round the ring several times
+        for (int i = 0; i < 20000; i++) {
+            src.append("var x").append(i).append(" = [").append(i).append(", \"s\"] // ").append(i).append("\n");
+        }
+        src.append("print(\"unterminated\n");
+        TokenList expected = new CatScriptTokenizer(src.toString()).getTokens();
+        TokenList actual = CatScriptTokenizer.pipelined(src.toString()).getTokens();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.consumeToken().toString(), actual.consumeToken().toString());
+        }
+        actual.reset();
+        assertEquals(expected.stream().map(Token::toString).collect(Collectors.toList()),
+                actual.stream().map(Token::toString).collect(Collectors.toList()));
+        assertEquals(EOF, actual.peekToken(Integer.MAX_VALUE).getType());
+    }
+
+    @Test
+    public void closingAPipelinedListStopsItsTokenizer() throws InterruptedException {
+        StringBuilder src = new StringBuilder();
+        // more tokens than the ring holds, so the tokenizer waits on a reader that has stopped
+        for (int i = 0; i < 20000; i++) {
+            src.append("var x").append(i).append(" = [").append(i).append(", \"s\"]\n");
+        }
+        PipelinedTokenList tokens = (PipelinedTokenList) CatScriptTokenizer.pipelined(src.toString()).getTokens();
+        assertEquals(VAR, tokens.consumeToken().getType());
+        tokens.close();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (tokens.isProducing() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertFalse(tokens.isProducing());
+    }
+
 }